@@ -0,0 +1,103 @@
+package ro.kuberam.oxygen.addonBuilder.parser;
+
+/**
+ * Generates synthetic addon.xq framework descriptors, with a given number of
+ * templates, actions, and observers, for the benchmarks of the parser.
+ *
+ * Each template calls ua:get-template() for the previous one, so that the
+ * templates form chains of ua:get-template() calls with the given nesting
+ * depth.
+ *
+ * @author Claudius Teodorescu
+ */
+public class AddonDescriptorGenerator {
+
+	private int templateCount;
+	private int actionCount;
+	private int observerCount;
+	private int nestingDepth;
+
+	public AddonDescriptorGenerator(int templateCount, int actionCount, int observerCount, int nestingDepth) {
+		this.templateCount = templateCount;
+		this.actionCount = Math.max(actionCount, 1);
+		this.observerCount = observerCount;
+		this.nestingDepth = nestingDepth;
+	}
+
+	public String generate() {
+		StringBuilder addonDescriptor = new StringBuilder();
+
+		addonDescriptor.append("xquery version \"3.0\";\n\n");
+		addonDescriptor.append("import module \"http://expath.org/ns/user-agent\";\n\n");
+		addonDescriptor.append("declare namespace ua = \"http://expath.org/ns/user-agent\";\n");
+		addonDescriptor.append("declare namespace oxy = \"http://oxygenxml.com/extensions/author\";\n\n");
+		addonDescriptor.append("declare variable $ua:document := /;\n\n");
+
+		addonDescriptor.append(
+				"ua:add-event-listener(ua:document, \"load\", oxy:execute-action-by-name(\"action-0\")),\n\n");
+
+		for (int i = 0; i < actionCount; i++) {
+			switch (i % 3) {
+			case 0:
+				addonDescriptor.append("ua:action(\"action-").append(i).append("\", map {\"name\" := \"Action ")
+						.append(i).append("\", \"description\" := \"Delete node ").append(i)
+						.append("\"}, oxy:execute-xquery-update-script(\"delete node .\")),\n");
+				break;
+			case 1:
+				addonDescriptor.append("ua:action(\"action-").append(i).append("\", map {\"name\" := \"Action ")
+						.append(i).append("\"}, oxy:execute-xquery-script(\"action-").append(i).append(".xq\")),\n");
+				break;
+			default:
+				addonDescriptor.append("ua:action(\"action-").append(i).append("\", map {\"name\" := \"Action ")
+						.append(i).append("\"}, oxy:execute-action-by-class(\"ro.example.Operation").append(i)
+						.append("\")),\n");
+			}
+		}
+		addonDescriptor.append("\n");
+
+		for (int i = 0; i < observerCount; i++) {
+			addonDescriptor.append("ua:observer(\"observer-").append(i).append("\", \"").append(_actionId(i))
+					.append(" ").append(_actionId(i + 1)).append("\"),\n");
+			addonDescriptor.append("ua:connect-observer(\"observer-").append(i)
+					.append("\", ua-dt:xpath-selector(\"//element-").append(i)
+					.append("\"), map {\"attributes\" := \"true\", \"attributeFilter\" := \"['type', 'n']\"}),\n");
+		}
+		addonDescriptor.append("\n");
+
+		for (int i = 0; i < templateCount; i++) {
+			addonDescriptor.append("ua:template(\"template-").append(i).append("\",\n");
+			addonDescriptor.append("\t<template>\n");
+			addonDescriptor.append("\t\tLabel ").append(i)
+					.append(": <input type=\"text\" size=\"20\" data-ua-ref=\"{@n}\" />\n");
+			addonDescriptor.append("\t\t<select data-ua-ref=\"{@type}\" style=\"width: 30;\">")
+					.append("<option label=\"A\" value=\"a\"/><option label=\"B\" value=\"b\"/></select>\n");
+			addonDescriptor.append("\t\t<button onclick=\"{oxy:execute-action-by-name('").append(_actionId(i))
+					.append("')}\" style=\"visibility: {@n = '1'}\">X</button>\n");
+			addonDescriptor.append("\t\t<datalist id=\"datalist-").append(i)
+					.append("\"><option label=\"Noun\" value=\"n\"/><option label=\"Verb\" value=\"v\"/></datalist>\n");
+			addonDescriptor.append("\t\t<input type=\"text\" list=\"datalist-").append(i)
+					.append("\" data-ua-ref=\"{@pos}\"/>\n");
+			if (i % (nestingDepth + 1) != 0) {
+				addonDescriptor.append("\t\t{ua:get-template('template-").append(i - 1).append("')}\n");
+			}
+			addonDescriptor.append("\t</template>\n");
+			addonDescriptor.append("),\n");
+		}
+		addonDescriptor.append("\n");
+
+		for (int i = 0; i < templateCount; i++) {
+			addonDescriptor.append("ua:attach-template(ua-dt:css-selector(\"element-").append(i)
+					.append("\"), (), \"template-").append(i).append("\"),\n");
+		}
+
+		// remove the last separator
+		addonDescriptor.setLength(addonDescriptor.lastIndexOf(","));
+		addonDescriptor.append("\n");
+
+		return addonDescriptor.toString();
+	}
+
+	private String _actionId(int index) {
+		return "action-" + (index % actionCount);
+	}
+}
@@ -0,0 +1,158 @@
+package ro.kuberam.oxygen.addonBuilder.parser;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmarks the stages of the {@link Parser} separately, on synthetic
+ * framework descriptors: the parsing of addon.xq, the building of the syntax
+ * tree, the processing of the function calls, and the writing of the parsing
+ * result.
+ *
+ * Run it with <code>mvn -P benchmarks test-compile exec:exec</code>; the JMH
+ * options, e.g. <code>-p templates=1000</code>, can be given in the
+ * <code>benchmark.args</code> property. The allocation profiler is enabled.
+ *
+ * @author Claudius Teodorescu
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+
+	@Param({ "10", "100", "500" })
+	public int templates;
+
+	@Param({ "50" })
+	public int actions;
+
+	@Param({ "20" })
+	public int observers;
+
+	@Param({ "3" })
+	public int nestingDepth;
+
+	private String addonDescriptor;
+	private File frameworkDirectory;
+	private File targetDirectory;
+	private ParsingResult parsingResult;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		addonDescriptor = new AddonDescriptorGenerator(templates, actions, observers, nestingDepth).generate();
+
+		frameworkDirectory = Files.createTempDirectory("parser-benchmark").toFile();
+		targetDirectory = new File(frameworkDirectory, "target");
+		targetDirectory.mkdirs();
+		new File(frameworkDirectory, "resources" + File.separator + "css").mkdirs();
+
+		Parser parser = new Parser(false);
+		parser.processDeclarations(SyntaxTreeBuilder.parse(addonDescriptor), frameworkDirectory);
+		parsingResult = parser.getParsingResult();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		Files.walk(frameworkDirectory.toPath()).sorted(Comparator.reverseOrder()).map(Path::toFile)
+				.forEach(File::delete);
+	}
+
+	/**
+	 * The syntax tree is changed while the function calls are processed, so
+	 * each invocation gets a new one.
+	 */
+	@State(Scope.Thread)
+	public static class SyntaxTreeState {
+		private SyntaxNode syntaxTree;
+
+		@Setup(Level.Invocation)
+		public void setUp(ParserBenchmark benchmark) {
+			syntaxTree = SyntaxTreeBuilder.parse(benchmark.addonDescriptor);
+		}
+	}
+
+	@Benchmark
+	public void parseXQuery(final Blackhole blackhole) {
+		XQuery30 parser = XQuery30.getInstance(addonDescriptor, new XQuery30.EventHandler() {
+			@Override
+			public void reset(CharSequence string) {
+			}
+
+			@Override
+			public void startNonterminal(String name, int begin) {
+				blackhole.consume(begin);
+			}
+
+			@Override
+			public void endNonterminal(String name, int end) {
+				blackhole.consume(end);
+			}
+
+			@Override
+			public void terminal(String name, int begin, int end) {
+				blackhole.consume(end);
+			}
+
+			@Override
+			public void whitespace(int begin, int end) {
+			}
+		});
+
+		try {
+			parser.parse_XQuery();
+		} finally {
+			parser.release();
+		}
+	}
+
+	@Benchmark
+	public SyntaxNode buildSyntaxTree() {
+		return SyntaxTreeBuilder.parse(addonDescriptor);
+	}
+
+	@Benchmark
+	public ParsingResult processFunctionCalls(SyntaxTreeState syntaxTreeState) throws Exception {
+		Parser parser = new Parser(false);
+		parser.processDeclarations(syntaxTreeState.syntaxTree, frameworkDirectory);
+
+		return parser.getParsingResult();
+	}
+
+	@Benchmark
+	public void writeParsingResult() throws Exception {
+		parsingResult.writeToFile(targetDirectory, frameworkDirectory);
+	}
+
+	public static void main(String[] args) throws Exception {
+		Options options = new OptionsBuilder().parent(new CommandLineOptions(args))
+				.include(ParserBenchmark.class.getSimpleName()).addProfiler(GCProfiler.class).build();
+
+		new Runner(options).run();
+	}
+}
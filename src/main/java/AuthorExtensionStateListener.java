@@ -3,18 +3,20 @@ import java.awt.event.FocusEvent;
 import java.awt.event.FocusListener;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
 import javax.swing.text.BadLocationException;
 import javax.swing.text.JTextComponent;
 
 import org.apache.log4j.Logger;
 
-import ro.kuberam.oxygen.addonBuilder.utils.IOUtilities;
+import ro.kuberam.oxygen.addonBuilder.FrameworkWarmUp;
+import ro.kuberam.oxygen.addonBuilder.SerialisedObjects;
+import ro.kuberam.oxygen.addonBuilder.operations.OperationFactory;
 import ro.sync.ecss.extensions.api.AuthorAccess;
 import ro.sync.ecss.extensions.api.AuthorDocumentController;
 import ro.sync.ecss.extensions.api.AuthorOperation;
@@ -32,17 +34,11 @@ public class AuthorExtensionStateListener implements ro.sync.ecss.extensions.api
 	private static final Logger logger = Logger.getLogger(AuthorExtensionStateListener.class.getName());
 
 	private AuthorAccess authorAccess;
-	private static ArrayList<String> actionsByName = new ArrayList<String>();
-	private static Map<String, ArrayList<String>> actionsByClass = new HashMap<String, ArrayList<String>>();
 	private static Properties scripts = new Properties();
 
-	// loading the serialized objects
+	// loading the special characters
 	static {
 		try {
-			actionsByName = (ArrayList<String>) IOUtilities.deserializeObjectFromFile("/actionsByName.ser");
-			actionsByClass = (Map<String, ArrayList<String>>) IOUtilities
-					.deserializeObjectFromFile("/actionsByClass.ser");
-
 			if (AuthorExtensionStateListener.class.getResource("/special-characters.xml") != null) {
 				InputStream scriptsIs = AuthorExtensionStateListener.class
 						.getResourceAsStream("/special-characters.xml");
@@ -50,7 +46,7 @@ public class AuthorExtensionStateListener implements ro.sync.ecss.extensions.api
 				scriptsIs.close();
 			}
 
-		} catch (IOException | ClassNotFoundException e) {
+		} catch (IOException e) {
 			e.printStackTrace();
 		}
 	}
@@ -65,7 +61,6 @@ public class AuthorExtensionStateListener implements ro.sync.ecss.extensions.api
 	 */
 	@Override
 	public void activated(final AuthorAccess authorAccess) {
-
 		this.setAuthorAccess(authorAccess);
 
 		final AuthorEditorAccess authorEditorAccess = authorAccess.getEditorAccess();
@@ -74,31 +69,13 @@ public class AuthorExtensionStateListener implements ro.sync.ecss.extensions.api
 		// Add document filter.
 		authorDocumentController.setDocumentFilter(new DocumentFilter(authorAccess));
 
-		// invoke actions by name
-		AuthorActionsProvider actionsProvider = authorEditorAccess.getActionsProvider();
-		Map<String, Object> authorActions = actionsProvider.getAuthorCommonActions();
-		authorActions.putAll(actionsProvider.getAuthorExtensionActions());
-
-		for (String actionName : actionsByName) {
-			Object action = authorActions.get(actionName);
-
-			if (action != null) {
-				actionsProvider.invokeAction(action);
-			}
-		}
-
-		// invoke actions by class name
-		for (String actionClass : actionsByClass.get("load")) {
-			Class<?> c;
-			try {
-				c = Class.forName(actionClass);
-				AuthorOperation o = (AuthorOperation) c.newInstance();
-				o.doOperation(authorAccess, null);
-			} catch (ClassNotFoundException | InstantiationException | IllegalAccessException | SecurityException
-					| IllegalArgumentException | AuthorOperationException e) {
-				e.printStackTrace();
+		// run the load actions when the framework is warmed up, without blocking
+		// the first display of the document
+		FrameworkWarmUp.start().whenComplete((result, e) -> SwingUtilities.invokeLater(() -> {
+			if (this.authorAccess == authorAccess) {
+				_runLoadActions(authorAccess);
 			}
-		}
+		}));
 
 		JPanel authorComponent = (JPanel) authorEditorAccess.getAuthorComponent();
 
@@ -145,6 +122,39 @@ public class AuthorExtensionStateListener implements ro.sync.ecss.extensions.api
 
 	@Override
 	public void deactivated(AuthorAccess arg0) {
+		this.setAuthorAccess(null);
+	}
+
+	private void _runLoadActions(AuthorAccess authorAccess) {
+		// invoke actions by name
+		AuthorActionsProvider actionsProvider = authorAccess.getEditorAccess().getActionsProvider();
+		Map<String, Object> authorActions = actionsProvider.getAuthorCommonActions();
+		authorActions.putAll(actionsProvider.getAuthorExtensionActions());
+
+		for (String actionName : SerialisedObjects.getActionsByName()) {
+			Object action = authorActions.get(actionName);
+
+			if (action != null) {
+				actionsProvider.invokeAction(action);
+			}
+		}
+
+		// invoke actions by class name
+		List<String> loadOperations = SerialisedObjects.getActionsByClass().get("load");
+
+		if (loadOperations == null) {
+			return;
+		}
+
+		for (String actionClass : loadOperations) {
+			try {
+				AuthorOperation o = OperationFactory.getInstance(actionClass);
+				o.doOperation(authorAccess, null);
+			} catch (ReflectiveOperationException | SecurityException | IllegalArgumentException
+					| AuthorOperationException e) {
+				e.printStackTrace();
+			}
+		}
 	}
 
 	public AuthorAccess getAuthorAccess() {
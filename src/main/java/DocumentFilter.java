@@ -4,9 +4,11 @@ import javax.swing.text.BadLocationException;
 
 import org.apache.log4j.Logger;
 
+import ro.kuberam.oxygen.addonBuilder.instrumentation.LatencyRecorder;
+import ro.kuberam.oxygen.addonBuilder.instrumentation.LatencyRecorders;
+import ro.kuberam.oxygen.addonBuilder.mutations.MutationRecord;
 import ro.kuberam.oxygen.addonBuilder.mutations.ProcessMutationRecord;
 import ro.sync.ecss.css.StaticContent;
-import ro.sync.ecss.css.Styles;
 import ro.sync.ecss.extensions.api.AuthorAccess;
 import ro.sync.ecss.extensions.api.AuthorDocumentController;
 import ro.sync.ecss.extensions.api.AuthorDocumentFilter;
@@ -14,6 +16,7 @@ import ro.sync.ecss.extensions.api.AuthorDocumentFilterBypass;
 import ro.sync.ecss.extensions.api.access.AuthorEditorAccess;
 import ro.sync.ecss.extensions.api.content.OffsetInformation;
 import ro.sync.ecss.extensions.api.node.AttrValue;
+import ro.sync.ecss.extensions.api.node.AuthorDocumentFragment;
 import ro.sync.ecss.extensions.api.node.AuthorElement;
 import ro.sync.ecss.extensions.api.node.AuthorNode;
 import ro.sync.exml.workspace.api.editor.page.author.actions.AuthorActionsProvider;
@@ -23,6 +26,12 @@ public class DocumentFilter extends AuthorDocumentFilter {
 
 	private static final Logger logger = Logger.getLogger(DocumentFilter.class.getName());
 
+	private static final LatencyRecorder deleteLatency = LatencyRecorders.get("DocumentFilter.delete");
+	private static final LatencyRecorder deleteNodeLatency = LatencyRecorders.get("DocumentFilter.deleteNode");
+	private static final LatencyRecorder setAttributeLatency = LatencyRecorders.get("DocumentFilter.setAttribute");
+	private static final LatencyRecorder insertTextLatency = LatencyRecorders.get("DocumentFilter.insertText");
+	private static final LatencyRecorder insertFragmentLatency = LatencyRecorders.get("DocumentFilter.insertFragment");
+
 	/**
 	 * The author access.
 	 */
@@ -31,6 +40,22 @@ public class DocumentFilter extends AuthorDocumentFilter {
 	private AuthorDocumentController authorDocumentController;
 	private AuthorActionsProvider authorActionsProvider;
 	private Map<String, Object> authorExtensionActions;
+	private ProcessMutationRecord processMutationRecord;
+
+	/**
+	 * Incremented at each change of the document done by the filter.
+	 */
+	private long modificationStamp;
+
+	/**
+	 * The cache of the marker lookup, keyed by the offset of the last deletion
+	 * with backspace and by the modification stamp: the node whose marker is
+	 * at that offset, so that a repeated backspace at the marker of an empty
+	 * node does not look the node up again.
+	 */
+	private AuthorNode cachedMarkerNode;
+	private int cachedMarkerOffset = -1;
+	private long cachedMarkerStamp = -1;
 
 	/**
 	 * Constructor.
@@ -44,60 +69,107 @@ public class DocumentFilter extends AuthorDocumentFilter {
 		this.authorDocumentController = access.getDocumentController();
 		authorActionsProvider = authorEditorAccess.getActionsProvider();
 		this.authorExtensionActions = authorActionsProvider.getAuthorExtensionActions();
+		this.processMutationRecord = new ProcessMutationRecord(authorActionsProvider);
 	}
 
 	@Override
 	public boolean delete(AuthorDocumentFilterBypass filterBypass, int startOffset, int endOffset,
 			boolean withBackspace) {
+		long start = deleteLatency.start();
 
-		AuthorNode currentNode = null;
 		try {
-			currentNode = authorDocumentController.getNodeAtOffset(startOffset);
-		} catch (BadLocationException e) {
-
-			e.printStackTrace();
+			return _delete(filterBypass, startOffset, endOffset, withBackspace);
+		} finally {
+			deleteLatency.stop(start);
 		}
+	}
 
-		Styles styles = authorEditorAccess.getStyles(currentNode);
+	private boolean _delete(AuthorDocumentFilterBypass filterBypass, int startOffset, int endOffset,
+			boolean withBackspace) {
+		if (logger.isDebugEnabled()) {
+			try {
+				StaticContent[] mixedContent = authorEditorAccess
+						.getStyles(authorDocumentController.getNodeAtOffset(startOffset)).getMixedContent();
+				logger.debug("mixed content length = " + mixedContent.length);
+			} catch (BadLocationException e) {
+				e.printStackTrace();
+			}
+		}
 
-		StaticContent[] mixedContent = styles.getMixedContent();
-		logger.debug("mixedContent = " + mixedContent);
-		logger.debug("mixed content length = " + mixedContent.length);
+		// the empty nodes are protected from being deleted by backspace at
+		// their marker
+		if (withBackspace && _isEmptyNodeMarker(startOffset)) {
+			return true;
+		}
 
-//		if (mixedContent.length == 0) {
-//			return true;
-//		}
+		AuthorNode mutationTarget = null;
+		boolean isCharacterData = false;
+		if (processMutationRecord.isObserved(MutationRecord.CHARACTER_DATA)
+				|| processMutationRecord.isObserved(MutationRecord.CHILD_LIST)) {
+			try {
+				AuthorNode currentNode = authorDocumentController.getNodeAtOffset(startOffset);
 
-		try {
-			OffsetInformation ci = authorDocumentController.getContentInformationAtOffset(startOffset);
-
-			if (ci.getNodeForMarkerOffset() != null) {
-				if (withBackspace && ci.getNodeForMarkerOffset().getStartOffset() == startOffset) {
-					if (ci.getNodeForMarkerOffset().getStartOffset() + 1 == ci.getNodeForMarkerOffset()
-							.getEndOffset()) {
-						return true;
-					}
+				if (currentNode == authorDocumentController.getNodeAtOffset(endOffset)) {
+					isCharacterData = true;
+					mutationTarget = currentNode;
+				} else {
+					mutationTarget = authorDocumentController.getCommonParentNode(
+							authorDocumentController.getAuthorDocumentNode(), startOffset, endOffset);
 				}
+			} catch (BadLocationException e) {
+				e.printStackTrace();
 			}
+		}
+
+		boolean deleted = filterBypass.delete(startOffset, endOffset, withBackspace);
+		modificationStamp++;
 
-		} catch (BadLocationException e) {
-			e.printStackTrace();
+		if (deleted && mutationTarget != null) {
+			if (isCharacterData) {
+				processMutationRecord.characterData(mutationTarget);
+			} else {
+				processMutationRecord.childList(mutationTarget);
+			}
 		}
 
-		return filterBypass.delete(startOffset, endOffset, withBackspace);
+		return deleted;
+	}
+
+	@Override
+	public boolean deleteNode(AuthorDocumentFilterBypass filterBypass, AuthorNode node) {
+		long start = deleteNodeLatency.start();
+
+		try {
+			AuthorNode parentNode = node.getParent();
+			boolean deleted = filterBypass.deleteNode(node);
+			modificationStamp++;
+
+			if (deleted && parentNode != null) {
+				processMutationRecord.childList(parentNode);
+			}
+
+			return deleted;
+		} finally {
+			deleteNodeLatency.stop(start);
+		}
 	}
 
 	@Override
 	public void setAttribute(AuthorDocumentFilterBypass filterBypass, String attributeName, AttrValue newAttrValueObj,
 			AuthorElement currentElement) {
+		long start = setAttributeLatency.start();
 
-		filterBypass.setAttribute(attributeName, newAttrValueObj, currentElement);
+		try {
+			filterBypass.setAttribute(attributeName, newAttrValueObj, currentElement);
+			modificationStamp++;
 
-		if (currentElement.getAttribute(attributeName).getValue().equals(Constants.valueOfAttributeToBeDeleted)) {
-			filterBypass.removeAttribute(attributeName, currentElement);
-		} else {
-			ProcessMutationRecord.attributes(authorActionsProvider, currentElement.getStartOffset() + 1, currentElement,
-					attributeName, null, null);
+			if (currentElement.getAttribute(attributeName).getValue().equals(Constants.valueOfAttributeToBeDeleted)) {
+				filterBypass.removeAttribute(attributeName, currentElement);
+			} else {
+				processMutationRecord.attributes(currentElement, attributeName, null, null);
+			}
+		} finally {
+			setAttributeLatency.stop(start);
 		}
 	}
 
@@ -105,6 +177,7 @@ public class DocumentFilter extends AuthorDocumentFilter {
 	public void removeAttribute(AuthorDocumentFilterBypass filterBypass, String attributeName, AuthorElement element) {
 
 		filterBypass.removeAttribute(attributeName, element);
+		modificationStamp++;
 		AttrValue attrValue = new AttrValue("");
 		authorDocumentController.setAttribute(attributeName, attrValue, element);
 
@@ -112,10 +185,73 @@ public class DocumentFilter extends AuthorDocumentFilter {
 
 	@Override
 	public void insertText(AuthorDocumentFilterBypass filterBypass, int offset, String textContent) {
-		filterBypass.insertText(offset, textContent);
-		int newOffset = offset + textContent.length();
-		logger.debug("new offset = " + newOffset);
+		long start = insertTextLatency.start();
+
+		try {
+			filterBypass.insertText(offset, textContent);
+			modificationStamp++;
+			int newOffset = offset + textContent.length();
+			logger.debug("new offset = " + newOffset);
+
+			authorEditorAccess.setCaretPosition(newOffset);
+
+			if (processMutationRecord.isObserved(MutationRecord.CHARACTER_DATA)) {
+				try {
+					processMutationRecord.characterData(authorDocumentController.getNodeAtOffset(offset));
+				} catch (BadLocationException e) {
+					e.printStackTrace();
+				}
+			}
+		} finally {
+			insertTextLatency.stop(start);
+		}
+	}
+
+	@Override
+	public void insertFragment(AuthorDocumentFilterBypass filterBypass, int offset, AuthorDocumentFragment frag) {
+		long start = insertFragmentLatency.start();
+
+		try {
+			AuthorNode parentNode = null;
+			if (processMutationRecord.isObserved(MutationRecord.CHILD_LIST)) {
+				try {
+					parentNode = authorDocumentController.getNodeAtOffset(offset);
+				} catch (BadLocationException e) {
+					e.printStackTrace();
+				}
+			}
+
+			filterBypass.insertFragment(offset, frag);
+			modificationStamp++;
+
+			if (parentNode != null) {
+				processMutationRecord.childList(parentNode);
+			}
+		} finally {
+			insertFragmentLatency.stop(start);
+		}
+	}
+
+	private boolean _isEmptyNodeMarker(int offset) {
+		if (offset != cachedMarkerOffset || modificationStamp != cachedMarkerStamp) {
+			cachedMarkerNode = null;
+
+			try {
+				OffsetInformation ci = authorDocumentController.getContentInformationAtOffset(offset);
+				cachedMarkerNode = ci.getNodeForMarkerOffset();
+			} catch (BadLocationException e) {
+				e.printStackTrace();
+			}
+
+			cachedMarkerOffset = offset;
+			cachedMarkerStamp = modificationStamp;
+		}
+
+		AuthorNode markerNode = cachedMarkerNode;
 
-		authorEditorAccess.setCaretPosition(newOffset);
+		// the offsets are checked each time, as the document can be changed by
+		// undo, without the filter
+		return markerNode != null && markerNode.getParent() != null && markerNode.getStartOffset() == offset
+				&& markerNode.getStartOffset() + 1 == markerNode.getEndOffset();
 	}
 }
@@ -0,0 +1,109 @@
+package ro.kuberam.oxygen.addonBuilder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.log4j.Logger;
+
+import ro.kuberam.oxygen.addonBuilder.operations.OperationFactory;
+import ro.kuberam.oxygen.addonBuilder.operations.XQueryOperation;
+
+/**
+ * Prepares, in background, what the framework needs when a document is
+ * opened: loads the artifacts generated by the parser, resolves the classes of
+ * the operations to be run on load, and compiles the tree generator templates.
+ *
+ * @author Claudius Teodorescu
+ */
+public class FrameworkWarmUp {
+
+	/**
+	 * Logger for logging.
+	 */
+	private static final Logger logger = Logger.getLogger(FrameworkWarmUp.class.getName());
+
+	/**
+	 * The number of tree generator templates to be compiled, less than the
+	 * size of the cache of the compiled queries, so that the warm-up does not
+	 * evict the queries in use.
+	 */
+	private static final int maxCompiledTemplates = 16;
+
+	private static CompletableFuture<Void> warmUp;
+
+	/**
+	 * Starts the warm-up, if it is not started yet.
+	 */
+	public static synchronized CompletableFuture<Void> start() {
+		if (warmUp == null) {
+			long start = System.nanoTime();
+
+			SerialisedObjects.load();
+
+			warmUp = CompletableFuture
+					.allOf(CompletableFuture.runAsync(FrameworkWarmUp::_resolveLoadOperations),
+							CompletableFuture.runAsync(FrameworkWarmUp::_compileTreeGeneratorTemplates))
+					.whenComplete((result, e) -> logger
+							.debug("warm-up finished in " + (System.nanoTime() - start) / 1000000 + " ms"));
+		}
+
+		return warmUp;
+	}
+
+	private static void _resolveLoadOperations() {
+		List<String> loadOperations = SerialisedObjects.getActionsByClass().get("load");
+
+		if (loadOperations == null) {
+			return;
+		}
+
+		for (String className : loadOperations) {
+			try {
+				OperationFactory.resolve(className);
+			} catch (ReflectiveOperationException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	private static void _compileTreeGeneratorTemplates() {
+		String prolog = SerialisedObjects.getVariablesModule();
+		Map<String, String> templates = SerialisedObjects.getTemplates();
+		int compiledTemplates = 0;
+
+		for (String templateId : templates.keySet()) {
+			if (compiledTemplates == maxCompiledTemplates) {
+				break;
+			}
+
+			if (!_isTreeGeneratorTemplateId(templateId)) {
+				continue;
+			}
+
+			String template = templates.get(templateId);
+			if (template.startsWith(prolog)) {
+				XQueryOperation.compile(template, null);
+				compiledTemplates++;
+			}
+		}
+	}
+
+	/**
+	 * The parser identifies the tree generator templates by UUIDs without
+	 * dashes, so the other templates need not be decoded.
+	 */
+	private static boolean _isTreeGeneratorTemplateId(String templateId) {
+		if (templateId.length() != 32) {
+			return false;
+		}
+
+		for (int i = 0; i < 32; i++) {
+			if (Character.digit(templateId.charAt(i), 16) == -1) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+}
@@ -1,30 +1,118 @@
 package ro.kuberam.oxygen.addonBuilder;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
+import ro.kuberam.oxygen.addonBuilder.javafx.DialogModel;
+import ro.kuberam.oxygen.addonBuilder.mutations.ObserverConnection;
+import ro.kuberam.oxygen.addonBuilder.utils.ArtifactInputStream;
+import ro.kuberam.oxygen.addonBuilder.utils.ArtifactInputStream.ArtifactReader;
 import ro.kuberam.oxygen.addonBuilder.utils.IOUtilities;
 
+/**
+ * The artifacts generated by the parser for the framework, which are loaded
+ * only once, and are shared as read-only views.
+ *
+ * The artifacts are loaded in parallel, in background, when the framework is
+ * activated, and each getter waits only for the artifact it returns.
+ *
+ * @author Claudius Teodorescu
+ */
 public class SerialisedObjects {
 
-	public static String variablesModule = "";
-	public static Map<String, String> templates = new HashMap<String, String>();
-
-	// loading the serialized objects
-	static {
-		try {
-			variablesModule = (String) IOUtilities.deserializeObjectFromFile("/prolog.ser");
-			templates = (Map<String, String>) IOUtilities.deserializeObjectFromFile("/templates.ser");
-
-		} catch (FileNotFoundException e1) {
-			e1.printStackTrace();
-		} catch (IOException e1) {
-			e1.printStackTrace();
-		} catch (ClassNotFoundException e) {
-			e.printStackTrace();
+	private static CompletableFuture<String> variablesModule;
+	private static CompletableFuture<Map<String, String>> templates;
+	private static CompletableFuture<Map<String, String[]>> observers;
+	private static CompletableFuture<Map<String, ObserverConnection>> connectObserverActions;
+	private static CompletableFuture<Map<String, String>> nodeSelectors;
+	private static CompletableFuture<Map<String, DialogModel>> dialogs;
+	private static CompletableFuture<List<String>> actionsByName;
+	private static CompletableFuture<Map<String, List<String>>> actionsByClass;
+
+	/**
+	 * Starts loading the artifacts, if they are not loaded yet.
+	 */
+	public static synchronized void load() {
+		if (variablesModule != null) {
+			return;
 		}
+
+		variablesModule = _load("/prolog", ArtifactInputStream::readString, "");
+		templates = _load("/templates", ArtifactInputStream::readIndexedStringMap, new HashMap<String, String>())
+				.thenApply(Collections::unmodifiableMap);
+		observers = _load("/observers", ArtifactInputStream::readStringArrayMap, new HashMap<String, String[]>())
+				.thenApply(Collections::unmodifiableMap);
+		connectObserverActions = _load("/connectObserverActions", ArtifactInputStream::readObserverConnections,
+				new HashMap<String, ObserverConnection>()).thenApply(Collections::unmodifiableMap);
+		nodeSelectors = _load("/nodeSelectors", ArtifactInputStream::readStringMap, new HashMap<String, String>())
+				.thenApply(Collections::unmodifiableMap);
+		dialogs = _load("/dialogs", ArtifactInputStream::readDialogs, new HashMap<String, DialogModel>())
+				.thenApply(Collections::unmodifiableMap);
+		actionsByName = _load("/actionsByName", ArtifactInputStream::readStringList, new ArrayList<String>())
+				.thenApply(Collections::unmodifiableList);
+		actionsByClass = _load("/actionsByClass", ArtifactInputStream::readStringListMap,
+				new HashMap<String, ArrayList<String>>()).thenApply(map -> {
+					Map<String, List<String>> result = new HashMap<String, List<String>>();
+					map.forEach((key, value) -> result.put(key, Collections.unmodifiableList(value)));
+
+					return Collections.unmodifiableMap(result);
+				});
+	}
+
+	public static String getVariablesModule() {
+		load();
+		return variablesModule.join();
+	}
+
+	public static Map<String, String> getTemplates() {
+		load();
+		return templates.join();
+	}
+
+	public static Map<String, String[]> getObservers() {
+		load();
+		return observers.join();
+	}
+
+	public static Map<String, ObserverConnection> getConnectObserverActions() {
+		load();
+		return connectObserverActions.join();
+	}
+
+	public static Map<String, String> getNodeSelectors() {
+		load();
+		return nodeSelectors.join();
+	}
+
+	public static Map<String, DialogModel> getDialogs() {
+		load();
+		return dialogs.join();
 	}
 
+	public static List<String> getActionsByName() {
+		load();
+		return actionsByName.join();
+	}
+
+	public static Map<String, List<String>> getActionsByClass() {
+		load();
+		return actionsByClass.join();
+	}
+
+	private static <T> CompletableFuture<T> _load(String artifactName, ArtifactReader<? extends T> reader,
+			T defaultValue) {
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				return IOUtilities.readArtifact(SerialisedObjects.class, artifactName, reader);
+			} catch (IOException | ClassNotFoundException e) {
+				e.printStackTrace();
+				return defaultValue;
+			}
+		});
+	}
 }
@@ -0,0 +1,138 @@
+package ro.kuberam.oxygen.addonBuilder.instrumentation;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records the distribution of the latencies of a call, in nanoseconds, as a
+ * histogram with logarithmic buckets, each divided in linear sub-buckets, so
+ * that a latency is recorded with a precision of 1/16, in constant time and
+ * space.
+ *
+ * @author Claudius Teodorescu
+ */
+public class LatencyRecorder {
+
+	private static final int subBucketBits = 4;
+	private static final int subBucketCount = 1 << subBucketBits;
+	private static final int bucketCount = (64 - subBucketBits) * subBucketCount;
+
+	private final String name;
+	private final AtomicLongArray counts = new AtomicLongArray(bucketCount);
+	private final AtomicLong totalCount = new AtomicLong();
+	private final AtomicLong totalTime = new AtomicLong();
+	private final AtomicLong maxTime = new AtomicLong();
+
+	public LatencyRecorder(String name) {
+		this.name = name;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the start time of a call
+	 */
+	public long start() {
+		return System.nanoTime();
+	}
+
+	/**
+	 * Records the latency of a call started at the start time.
+	 */
+	public void stop(long start) {
+		record(System.nanoTime() - start);
+	}
+
+	public void record(long time) {
+		if (time < 0) {
+			return;
+		}
+
+		counts.incrementAndGet(_getBucketIndex(time));
+		totalCount.incrementAndGet();
+		totalTime.addAndGet(time);
+		maxTime.accumulateAndGet(time, Math::max);
+	}
+
+	public long getCount() {
+		return totalCount.get();
+	}
+
+	public long getMax() {
+		return maxTime.get();
+	}
+
+	public double getMean() {
+		long count = totalCount.get();
+
+		return count == 0 ? 0 : (double) totalTime.get() / count;
+	}
+
+	/**
+	 * @return the highest latency of the calls below the percentile, in
+	 *         nanoseconds, with the precision of the histogram
+	 */
+	public long getValueAtPercentile(double percentile) {
+		long count = totalCount.get();
+		if (count == 0) {
+			return 0;
+		}
+
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+		long cumulativeCount = 0;
+
+		for (int i = 0; i < bucketCount; i++) {
+			cumulativeCount += counts.get(i);
+
+			if (cumulativeCount >= rank) {
+				return Math.min(_getBucketUpperBound(i), maxTime.get());
+			}
+		}
+
+		return maxTime.get();
+	}
+
+	public void reset() {
+		for (int i = 0; i < bucketCount; i++) {
+			counts.set(i, 0);
+		}
+		totalCount.set(0);
+		totalTime.set(0);
+		maxTime.set(0);
+	}
+
+	/**
+	 * @return the count and the distribution of the latencies, in
+	 *         microseconds
+	 */
+	public String toString() {
+		return String.format("%s: count=%d mean=%.1fus p50=%.1fus p90=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus",
+				name, getCount(), getMean() / 1000, getValueAtPercentile(50) / 1000d,
+				getValueAtPercentile(90) / 1000d, getValueAtPercentile(99) / 1000d,
+				getValueAtPercentile(99.9) / 1000d, getMax() / 1000d);
+	}
+
+	private static int _getBucketIndex(long time) {
+		if (time < subBucketCount) {
+			return (int) time;
+		}
+
+		int magnitude = 63 - Long.numberOfLeadingZeros(time);
+		int subBucket = (int) (time >>> (magnitude - subBucketBits)) & (subBucketCount - 1);
+
+		return (magnitude - subBucketBits + 1) * subBucketCount + subBucket;
+	}
+
+	private static long _getBucketUpperBound(int bucketIndex) {
+		if (bucketIndex < subBucketCount) {
+			return bucketIndex;
+		}
+
+		int magnitude = bucketIndex / subBucketCount + subBucketBits - 1;
+		long subBucket = bucketIndex % subBucketCount;
+
+		return ((subBucketCount + subBucket + 1) << (magnitude - subBucketBits)) - 1;
+	}
+}
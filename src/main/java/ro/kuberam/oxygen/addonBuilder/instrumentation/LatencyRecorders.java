@@ -0,0 +1,95 @@
+package ro.kuberam.oxygen.addonBuilder.instrumentation;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.apache.log4j.Logger;
+
+/**
+ * The latency recorders of the calls that can slow down the editing, as the
+ * calls of the document filter and of the form controls.
+ *
+ * The recorders are enabled by the system property
+ * <code>oxygenAddonBuilder.latencyRecorders</code>. When enabled, the
+ * latencies are logged when Oxygen exits, and can be read by JMX, as the
+ * <code>ro.kuberam.oxygen.addonBuilder:type=LatencyRecorders</code> MBean.
+ * When disabled, the recorders do nothing.
+ *
+ * @author Claudius Teodorescu
+ */
+public class LatencyRecorders implements LatencyRecordersMBean {
+
+	/**
+	 * Logger for logging.
+	 */
+	private static final Logger logger = Logger.getLogger(LatencyRecorders.class.getName());
+
+	public static final boolean enabled = Boolean.getBoolean("oxygenAddonBuilder.latencyRecorders");
+
+	private static final Map<String, LatencyRecorder> recorders = new ConcurrentSkipListMap<String, LatencyRecorder>();
+
+	private static final LatencyRecorder disabledRecorder = new LatencyRecorder("disabled") {
+		@Override
+		public long start() {
+			return 0;
+		}
+
+		@Override
+		public void stop(long start) {
+		}
+
+		@Override
+		public void record(long time) {
+		}
+	};
+
+	static {
+		if (enabled) {
+			try {
+				ManagementFactory.getPlatformMBeanServer().registerMBean(new LatencyRecorders(),
+						new ObjectName("ro.kuberam.oxygen.addonBuilder:type=LatencyRecorders"));
+			} catch (JMException e) {
+				e.printStackTrace();
+			}
+
+			Runtime.getRuntime().addShutdownHook(new Thread(LatencyRecorders::logLatencies));
+		}
+	}
+
+	/**
+	 * Returns the recorder with the name, as
+	 * <code>InputFormControl.getRenderingInfo</code>.
+	 */
+	public static LatencyRecorder get(String name) {
+		if (!enabled) {
+			return disabledRecorder;
+		}
+
+		return recorders.computeIfAbsent(name, LatencyRecorder::new);
+	}
+
+	public static void logLatencies() {
+		for (LatencyRecorder recorder : recorders.values()) {
+			logger.info(recorder);
+		}
+	}
+
+	@Override
+	public String[] getLatencies() {
+		return recorders.values().stream().map(LatencyRecorder::toString).toArray(String[]::new);
+	}
+
+	@Override
+	public void log() {
+		logLatencies();
+	}
+
+	@Override
+	public void reset() {
+		recorders.values().forEach(LatencyRecorder::reset);
+	}
+}
@@ -0,0 +1,15 @@
+package ro.kuberam.oxygen.addonBuilder.instrumentation;
+
+/**
+ * The management interface of the latency recorders.
+ *
+ * @author Claudius Teodorescu
+ */
+public interface LatencyRecordersMBean {
+
+	public String[] getLatencies();
+
+	public void log();
+
+	public void reset();
+}
@@ -2,7 +2,6 @@ package ro.kuberam.oxygen.addonBuilder.javafx.bridges.framework;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
@@ -32,6 +31,7 @@ import ro.kuberam.oxygen.addonBuilder.javafx.JavaFXDialog;
 import ro.kuberam.oxygen.addonBuilder.javafx.bridges.BaseBridge;
 import ro.kuberam.oxygen.addonBuilder.javafx.bridges.filesystem.FileSystemBridge;
 import ro.kuberam.oxygen.addonBuilder.operations.XQueryOperation;
+import ro.kuberam.oxygen.addonBuilder.parser.Parser;
 import ro.sync.exml.editor.EditorPageConstants;
 import ro.sync.exml.editor.persistance.DocumentTypeEntryPO;
 import ro.sync.exml.workspace.api.PluginWorkspace;
@@ -175,14 +175,14 @@ public class FrameworkGeneratingBridge extends BaseBridge {
 			File frameworkDescriptor = frameworkDirPath.resolve(frameworkId + ".framework").toFile();
 			logger.debug("frameworkDescriptor = " + frameworkDescriptor.getAbsolutePath());
 
-			runAntBuildFile(frameworkDirPath.getParent(), frameworkId, "pre-build-framework-structure.xml");
+			runParser(frameworkDirPath, frameworkId);
 
 			File generateFrameworkXQueryScript = Paths
 					.get(pluginInstallDirPath, "generate-framework", "generate-framework.xql").toFile();
 			logger.debug("generateFrameworkXQueryScript = " + generateFrameworkXQueryScript);
 
-			XQueryOperation.query(new FileReader(frameworkDescriptor.getAbsolutePath()),
-					new FileInputStream(generateFrameworkXQueryScript), true, frameworkDirUri, xqueryExternalVariables);
+			XQueryOperation.query(new FileReader(frameworkDescriptor.getAbsolutePath()), generateFrameworkXQueryScript,
+					true, frameworkDirUri, xqueryExternalVariables);
 
 			File frameworkSpecificXQueryScript = frameworkDirPath
 					.resolve(Paths.get("resources", "xquery", "framework-specific.xql")).toFile();
@@ -190,8 +190,7 @@ public class FrameworkGeneratingBridge extends BaseBridge {
 
 			if (frameworkSpecificXQueryScript.exists()) {
 				XQueryOperation.query(new FileReader(frameworkDescriptor.getAbsolutePath()),
-						new FileInputStream(frameworkSpecificXQueryScript), true, frameworkDirUri,
-						xqueryExternalVariables);
+						frameworkSpecificXQueryScript, true, frameworkDirUri, xqueryExternalVariables);
 			}
 
 			runAntBuildFile(frameworkDirPath.getParent(), frameworkId, "build-framework-structure.xml");
@@ -278,6 +277,33 @@ public class FrameworkGeneratingBridge extends BaseBridge {
 		return (new FileSystemBridge()).list(externalFrameworksDirPath, filter);
 	}
 
+	/**
+	 * Runs the parser in the plugin's JVM, which avoids starting Ant and
+	 * another JVM for it. The Ant build is still used when the parser cannot
+	 * be run in process, or when the system property
+	 * "oxygenAddonBuilder.forkParser" is set to true.
+	 */
+	private void runParser(Path frameworkDirPath, String frameworkId) {
+		if (Boolean.getBoolean("oxygenAddonBuilder.forkParser")) {
+			runAntBuildFile(frameworkDirPath.getParent(), frameworkId, "pre-build-framework-structure.xml");
+			return;
+		}
+
+		File frameworkTargetDir = frameworkDirPath.resolve("target").toFile();
+		logger.debug("frameworkTargetDir = " + frameworkTargetDir);
+
+		try {
+			new Parser(frameworkDirPath.toFile(), frameworkId, frameworkTargetDir, true);
+		} catch (LinkageError e) {
+			logger.info("the parser cannot be run in process, it is run by Ant: " + e);
+
+			runAntBuildFile(frameworkDirPath.getParent(), frameworkId, "pre-build-framework-structure.xml");
+		} catch (Exception e) {
+			e.printStackTrace();
+			JOptionPane.showMessageDialog(new JFrame(), e.toString(), "Error", JOptionPane.ERROR_MESSAGE);
+		}
+	}
+
 	private void runAntBuildFile(Path frameworksDir, String frameworkId, String buildFileName) {
 		logger.debug("frameworksDir = " + frameworksDir);
 
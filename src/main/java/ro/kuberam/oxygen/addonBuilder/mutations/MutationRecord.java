@@ -1,5 +1,70 @@
 package ro.kuberam.oxygen.addonBuilder.mutations;
 
+import ro.sync.ecss.extensions.api.node.AuthorNode;
+
+/**
+ * A change of the document, as the MutationRecord of the DOM.
+ *
+ * The namespace and the local name of the target are read when the record is
+ * created, on the event dispatch thread, as the nodes of the document must
+ * not be read by the other threads.
+ *
+ * @author Claudius Teodorescu
+ */
 public class MutationRecord {
 
+	public static final String ATTRIBUTES = "attributes";
+	public static final String CHARACTER_DATA = "characterData";
+	public static final String CHILD_LIST = "childList";
+
+	private final String type;
+	private final AuthorNode target;
+	private final String targetNamespace;
+	private final String targetLocalName;
+	private final String attributeName;
+	private final String attributeNamespace;
+	private final String oldValue;
+
+	public MutationRecord(String type, AuthorNode target, String targetNamespace, String targetLocalName,
+			String attributeName, String attributeNamespace, String oldValue) {
+		this.type = type;
+		this.target = target;
+		this.targetNamespace = targetNamespace;
+		this.targetLocalName = targetLocalName;
+		this.attributeName = attributeName;
+		this.attributeNamespace = attributeNamespace;
+		this.oldValue = oldValue;
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	public AuthorNode getTarget() {
+		return target;
+	}
+
+	public String getTargetNamespace() {
+		return targetNamespace;
+	}
+
+	public String getTargetLocalName() {
+		return targetLocalName;
+	}
+
+	public String getAttributeName() {
+		return attributeName;
+	}
+
+	public String getAttributeNamespace() {
+		return attributeNamespace;
+	}
+
+	public String getOldValue() {
+		return oldValue;
+	}
+
+	public String toString() {
+		return type + " " + targetLocalName + (attributeName == null ? "" : "@" + attributeName);
+	}
 }
@@ -0,0 +1,309 @@
+package ro.kuberam.oxygen.addonBuilder.mutations;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.log4j.Logger;
+
+/**
+ * The actions to be invoked when an observed element is changed, indexed by
+ * the type of the mutation, by the name of the element, and, for the
+ * attributes, by the name of the attribute.
+ *
+ * The elements are selected by simple XPath selectors, as
+ * <code>//tei:entry | //sense</code>, or by simple CSS selectors, as
+ * <code>tei|entry, sense</code>. A name without prefix selects the elements
+ * with that local name in any namespace.
+ *
+ * @author Claudius Teodorescu
+ */
+public class ObserverIndex {
+
+	/**
+	 * Logger for logging.
+	 */
+	private static final Logger logger = Logger.getLogger(ObserverIndex.class.getName());
+
+	private static final String anyName = "*";
+	private static final Object[] noActions = new Object[0];
+	private static final Pattern namespaceDeclarationPattern = Pattern
+			.compile("declare namespace ([\\w.-]+) = \"([^\"]*)\"");
+	private static final Pattern xpathSelectorPattern = Pattern.compile("//(?:([\\w.-]+|\\*):)?([\\w.-]+|\\*)");
+	private static final Pattern cssSelectorPattern = Pattern.compile("(?:([\\w.-]+|\\*)\\|)?([\\w.-]+|\\*)");
+
+	private static final String[] mutationTypes = { MutationRecord.ATTRIBUTES, MutationRecord.CHARACTER_DATA,
+			MutationRecord.CHILD_LIST };
+
+	private final Map<String, Map<String, Map<String, Object[]>>> actionsByType = new HashMap<String, Map<String, Map<String, Object[]>>>();
+
+	/**
+	 * @param connectObserverActions
+	 *            the observers connected to node selectors
+	 * @param nodeSelectors
+	 *            the type of each node selector, <code>xpath</code> or
+	 *            <code>css</code>
+	 * @param observers
+	 *            the names of the actions of each observer
+	 * @param actions
+	 *            the actions of the editor, by name
+	 * @param prolog
+	 *            the prolog declaring the namespace prefixes of the
+	 *            selectors
+	 */
+	public ObserverIndex(Map<String, ObserverConnection> connectObserverActions, Map<String, String> nodeSelectors,
+			Map<String, String[]> observers, Map<String, Object> actions, String prolog) {
+		Map<String, String> namespaces = _getNamespaces(prolog);
+		Map<String, List<String>> elementKeys = new HashMap<String, List<String>>();
+
+		for (ObserverConnection observerConnection : connectObserverActions.values()) {
+			String nodeSelector = observerConnection.getNodeSelector();
+			elementKeys.put(nodeSelector, _getElementKeys(nodeSelector, nodeSelectors.get(nodeSelector), namespaces));
+		}
+
+		for (String mutationType : mutationTypes) {
+			Map<String, Map<String, Set<Object>>> index = _buildIndex(mutationType, connectObserverActions,
+					elementKeys, observers, actions);
+
+			if (!index.isEmpty()) {
+				actionsByType.put(mutationType, _freeze(_mergeElementActions(index)));
+			}
+		}
+	}
+
+	/**
+	 * Returns the actions to be invoked when the attribute of the element is
+	 * changed.
+	 */
+	public Object[] getAttributeActions(String namespace, String localName, String attributeName) {
+		return getActions(MutationRecord.ATTRIBUTES, namespace, localName, attributeName);
+	}
+
+	/**
+	 * Returns the actions to be invoked for a mutation of the element. The
+	 * name of the attribute is used only for the attributes.
+	 */
+	public Object[] getActions(String mutationType, String namespace, String localName, String attributeName) {
+		Map<String, Map<String, Object[]>> attributeActions = actionsByType.get(mutationType);
+
+		if (attributeActions == null) {
+			return noActions;
+		}
+
+		Map<String, Object[]> elementActions = null;
+
+		if (namespace != null && !namespace.isEmpty()) {
+			elementActions = attributeActions.get(_getElementKey(namespace, localName));
+		}
+		if (elementActions == null) {
+			elementActions = attributeActions.get(localName);
+		}
+		if (elementActions == null) {
+			elementActions = attributeActions.get(anyName);
+		}
+		if (elementActions == null) {
+			return noActions;
+		}
+
+		Object[] actions = attributeName == null ? null : elementActions.get(attributeName);
+		if (actions == null) {
+			actions = elementActions.get(anyName);
+		}
+
+		return actions == null ? noActions : actions;
+	}
+
+	/**
+	 * Returns whether any element is observed for the type of mutation.
+	 */
+	public boolean isObserved(String mutationType) {
+		return actionsByType.containsKey(mutationType);
+	}
+
+	public boolean isEmpty() {
+		return actionsByType.isEmpty();
+	}
+
+	private static Map<String, Map<String, Set<Object>>> _buildIndex(String mutationType,
+			Map<String, ObserverConnection> connectObserverActions, Map<String, List<String>> elementKeys,
+			Map<String, String[]> observers, Map<String, Object> actions) {
+		Map<String, Map<String, Set<Object>>> index = new HashMap<String, Map<String, Set<Object>>>();
+
+		for (ObserverConnection observerConnection : connectObserverActions.values()) {
+			List<String> attributeNames = _getObservedAttributes(mutationType, observerConnection.getOptions());
+			String[] actionNames = observers.get(observerConnection.getObserverHandler());
+
+			if (attributeNames == null || actionNames == null) {
+				continue;
+			}
+
+			for (String elementKey : elementKeys.get(observerConnection.getNodeSelector())) {
+				Map<String, Set<Object>> elementActions = index.computeIfAbsent(elementKey,
+						key -> new HashMap<String, Set<Object>>());
+
+				for (String attributeName : attributeNames) {
+					Set<Object> attributeActions = elementActions.computeIfAbsent(attributeName,
+							key -> new LinkedHashSet<Object>());
+
+					for (String actionName : actionNames) {
+						Object action = actions.get(actionName);
+						if (action != null) {
+							attributeActions.add(action);
+						}
+					}
+				}
+			}
+		}
+
+		return index;
+	}
+
+	/**
+	 * As for the mutation observers, the attributes are observed when a filter
+	 * is set, or when the option <code>attributes</code> is true, and the
+	 * other mutations when their option is true. For the other mutations, any
+	 * attribute stands for the element itself.
+	 */
+	@SuppressWarnings("unchecked")
+	private static List<String> _getObservedAttributes(String mutationType, Map<String, Object> options) {
+		List<String> attributeFilter = (List<String>) options.get("attributeFilter");
+
+		if (mutationType.equals(MutationRecord.ATTRIBUTES) && attributeFilter != null) {
+			return attributeFilter;
+		}
+
+		if ("true".equals(options.get(mutationType))) {
+			List<String> attributeNames = new ArrayList<String>();
+			attributeNames.add(anyName);
+
+			return attributeNames;
+		}
+
+		return null;
+	}
+
+	private static List<String> _getElementKeys(String nodeSelector, String selectorType,
+			Map<String, String> namespaces) {
+		List<String> elementKeys = new ArrayList<String>();
+
+		boolean isXPathSelector = selectorType == null ? nodeSelector.startsWith("/") : selectorType.equals("xpath");
+		String separator = isXPathSelector ? "\\|" : ",";
+		Pattern selectorPattern = isXPathSelector ? xpathSelectorPattern : cssSelectorPattern;
+
+		for (String selector : nodeSelector.split(separator)) {
+			Matcher matcher = selectorPattern.matcher(selector.trim());
+
+			if (!matcher.matches()) {
+				logger.warn("unsupported node selector: " + selector);
+				continue;
+			}
+
+			String prefix = matcher.group(1);
+			String localName = matcher.group(2);
+
+			if (prefix == null || prefix.equals(anyName)) {
+				elementKeys.add(localName);
+				continue;
+			}
+
+			String namespace = namespaces.get(prefix);
+			if (namespace == null || localName.equals(anyName)) {
+				logger.warn("unsupported node selector: " + selector);
+				continue;
+			}
+
+			elementKeys.add(_getElementKey(namespace, localName));
+		}
+
+		return elementKeys;
+	}
+
+	private static String _getElementKey(String namespace, String localName) {
+		return "{" + namespace + "}" + localName;
+	}
+
+	private static Map<String, String> _getNamespaces(String prolog) {
+		Map<String, String> namespaces = new HashMap<String, String>();
+
+		if (prolog != null) {
+			Matcher matcher = namespaceDeclarationPattern.matcher(prolog);
+			while (matcher.find()) {
+				namespaces.put(matcher.group(1), matcher.group(2));
+			}
+		}
+
+		return namespaces;
+	}
+
+	/**
+	 * Adds to each namespaced element the actions of the elements with the
+	 * same local name in any namespace, and to each element the actions of any
+	 * element, so that a lookup needs only one entry.
+	 */
+	private static Map<String, Map<String, Set<Object>>> _mergeElementActions(
+			Map<String, Map<String, Set<Object>>> index) {
+		Map<String, Map<String, Set<Object>>> result = new HashMap<String, Map<String, Set<Object>>>();
+
+		for (Map.Entry<String, Map<String, Set<Object>>> entry : index.entrySet()) {
+			String elementKey = entry.getKey();
+			Map<String, Set<Object>> elementActions = new HashMap<String, Set<Object>>();
+
+			_addElementActions(elementActions, entry.getValue());
+			if (elementKey.startsWith("{")) {
+				_addElementActions(elementActions, index.get(elementKey.substring(elementKey.indexOf('}') + 1)));
+			}
+			if (!elementKey.equals(anyName)) {
+				_addElementActions(elementActions, index.get(anyName));
+			}
+
+			result.put(elementKey, elementActions);
+		}
+
+		return result;
+	}
+
+	private static void _addElementActions(Map<String, Set<Object>> elementActions,
+			Map<String, Set<Object>> otherElementActions) {
+		if (otherElementActions == null) {
+			return;
+		}
+
+		for (Map.Entry<String, Set<Object>> entry : otherElementActions.entrySet()) {
+			elementActions.computeIfAbsent(entry.getKey(), key -> new LinkedHashSet<Object>())
+					.addAll(entry.getValue());
+		}
+	}
+
+	/**
+	 * Adds to each attribute the actions of any attribute, and converts the
+	 * actions to arrays.
+	 */
+	private static Map<String, Map<String, Object[]>> _freeze(Map<String, Map<String, Set<Object>>> index) {
+		Map<String, Map<String, Object[]>> result = new HashMap<String, Map<String, Object[]>>();
+
+		for (Map.Entry<String, Map<String, Set<Object>>> entry : index.entrySet()) {
+			Map<String, Set<Object>> elementActions = entry.getValue();
+			Set<Object> anyAttributeActions = elementActions.get(anyName);
+			Map<String, Object[]> frozenElementActions = new HashMap<String, Object[]>();
+
+			for (Map.Entry<String, Set<Object>> attributeEntry : elementActions.entrySet()) {
+				Set<Object> actions = attributeEntry.getValue();
+
+				if (anyAttributeActions != null) {
+					actions.addAll(anyAttributeActions);
+				}
+
+				frozenElementActions.put(attributeEntry.getKey(), actions.toArray());
+			}
+
+			result.put(entry.getKey(), frozenElementActions);
+		}
+
+		return result;
+	}
+}
@@ -1,88 +1,237 @@
 package ro.kuberam.oxygen.addonBuilder.mutations;
 
-import java.io.FileNotFoundException;
-import java.io.IOException;
-import java.util.HashMap;
-import java.util.List;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.swing.AbstractAction;
+import javax.swing.Action;
+import javax.swing.SwingUtilities;
 
 import org.apache.log4j.Logger;
 
-import ro.kuberam.oxygen.addonBuilder.javafx.DialogModel;
-import ro.kuberam.oxygen.addonBuilder.utils.IOUtilities;
-import ro.sync.ecss.extensions.api.node.AttrValue;
+import ro.kuberam.oxygen.addonBuilder.SerialisedObjects;
+import ro.kuberam.oxygen.addonBuilder.instrumentation.LatencyRecorder;
+import ro.kuberam.oxygen.addonBuilder.instrumentation.LatencyRecorders;
 import ro.sync.ecss.extensions.api.node.AuthorElement;
+import ro.sync.ecss.extensions.api.node.AuthorNode;
 import ro.sync.exml.workspace.api.editor.page.author.actions.AuthorActionsProvider;
 
-@SuppressWarnings("unchecked")
+/**
+ * Collects the mutation records of an editor, and delivers them to the
+ * observers in batches, at the next tick of the event dispatch thread, as the
+ * mutation observers of the DOM do.
+ *
+ * The editor only queues the records. The observers of each record are looked
+ * up by a dispatcher thread, shared by all the editors, in an index built on
+ * the event dispatch thread, and only the invocation of the actions is done on
+ * the event dispatch thread, once per tick, and only once for an action and a
+ * target.
+ */
 public class ProcessMutationRecord {
 
 	/**
 	 * Logger for logging.
 	 */
 	private static final Logger logger = Logger.getLogger(ProcessMutationRecord.class.getName());
-	
-	public static Map<String, String[]> observers;
-	private static Map<String, ObserverConnection> connectObserverActions = new HashMap<String, ObserverConnection>();
-	private static Map<String, String> nodeSelectors = new HashMap<String, String>();
-	public static Map<String, DialogModel> dialogs = new HashMap<String, DialogModel>();
 
-	static {
-		try {
-			observers = (Map<String, String[]>) IOUtilities.deserializeObjectFromFile("/observers.ser");
-			connectObserverActions = (Map<String, ObserverConnection>) IOUtilities
-					.deserializeObjectFromFile("/connectObserverActions.ser");
-			nodeSelectors = (Map<String, String>) IOUtilities.deserializeObjectFromFile("/nodeSelectors.ser");
-			dialogs = (Map<String, DialogModel>) IOUtilities.deserializeObjectFromFile("/dialogs.ser");
-		} catch (FileNotFoundException e1) {
-			e1.printStackTrace();
-		} catch (IOException e1) {
-			e1.printStackTrace();
-		} catch (ClassNotFoundException e) {
-			e.printStackTrace();
-		}
+	private static final LatencyRecorder dispatchLatency = LatencyRecorders.get("ProcessMutationRecord.dispatch");
+	private static final LatencyRecorder invokeActionsLatency = LatencyRecorders
+			.get("ProcessMutationRecord.invokeActions");
+
+	private static final ExecutorService dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "mutation-observers-dispatcher");
+		thread.setDaemon(true);
+
+		return thread;
+	});
+
+	private final AuthorActionsProvider authorActionsProvider;
+
+	/**
+	 * The index of the observers, built at the first mutation, on the event
+	 * dispatch thread, as it reads the actions of the editor.
+	 */
+	private ObserverIndex observerIndex;
+
+	private final Queue<MutationRecord> mutationRecords = new ConcurrentLinkedQueue<MutationRecord>();
+	private final Queue<Invocation> invocations = new ConcurrentLinkedQueue<Invocation>();
+	private final AtomicBoolean dispatchScheduled = new AtomicBoolean();
+	private final AtomicBoolean deliveryScheduled = new AtomicBoolean();
+
+	public ProcessMutationRecord(AuthorActionsProvider authorActionsProvider) {
+		this.authorActionsProvider = authorActionsProvider;
 	}
 
-	public static void attributes(AuthorActionsProvider authorActionsProvider, int offset, AuthorElement target,
-			String attributeName, String attributeNamespace, String oldValue) {
+	/**
+	 * Used by the tests, with an index of given observers.
+	 */
+	ProcessMutationRecord(AuthorActionsProvider authorActionsProvider, ObserverIndex observerIndex) {
+		this.authorActionsProvider = authorActionsProvider;
+		this.observerIndex = observerIndex;
+	}
 
-		AttrValue newAttrValueObj = target.getAttribute(attributeName);
-		String newAttrValue = newAttrValueObj.getValue();
-		String targetName = target.getLocalName();
+	/**
+	 * Returns whether any element is observed for the type of mutation, so
+	 * that the editor does not compute the target of a record that is not
+	 * needed.
+	 */
+	public boolean isObserved(String mutationType) {
+		return _getObserverIndex().isObserved(mutationType);
+	}
 
-		ObserverConnection observerConnection = connectObserverActions.get("//" + targetName);
+	public void attributes(AuthorElement target, String attributeName, String attributeNamespace, String oldValue) {
+		_queue(MutationRecord.ATTRIBUTES, target, attributeName, attributeNamespace, oldValue);
+	}
 
-		if (observerConnection == null) {
+	/**
+	 * @param target
+	 *            the element whose text was changed
+	 */
+	public void characterData(AuthorNode target) {
+		_queue(MutationRecord.CHARACTER_DATA, target, null, null, null);
+	}
+
+	/**
+	 * @param target
+	 *            the node whose children were inserted or deleted
+	 */
+	public void childList(AuthorNode target) {
+		_queue(MutationRecord.CHILD_LIST, target, null, null, null);
+	}
+
+	/**
+	 * Called on the event dispatch thread, where the namespace and the local
+	 * name of the target are read, so that the dispatcher does not read the
+	 * nodes. The records are dispatched after the current event, so that the
+	 * records of an edit are dispatched together.
+	 */
+	private void _queue(String type, AuthorNode target, String attributeName, String attributeNamespace,
+			String oldValue) {
+		ObserverIndex observerIndex = _getObserverIndex();
+
+		if (!observerIndex.isObserved(type) || !(target instanceof AuthorElement)) {
 			return;
 		}
 
-		String observerHandler = observerConnection.getObserverHandler();
-		String[] actionHandlers = (String[]) observers.get(observerHandler);
-		Map<String, Object> options = observerConnection.getOptions();
-		List<String> attributeFilter = (List<String>) options.get("attributeFilter");
-
-		if (attributeFilter.contains(attributeName)) {
-			for (String actionHandler : actionHandlers) {
-				javax.swing.AbstractAction action = (AbstractAction) authorActionsProvider.getAuthorExtensionActions()
-						.get(actionHandler);
-				if (action != null) {
-					action.setEnabled(true);
-					authorActionsProvider.invokeAuthorExtensionActionInContext(
-							authorActionsProvider.getAuthorExtensionActions().get(actionHandler), offset);
+		AuthorElement targetElement = (AuthorElement) target;
+		mutationRecords.offer(new MutationRecord(type, target, targetElement.getNamespace(),
+				targetElement.getLocalName(), attributeName, attributeNamespace, oldValue));
+
+		if (dispatchScheduled.compareAndSet(false, true)) {
+			SwingUtilities.invokeLater(() -> dispatcher.execute(() -> _dispatch(observerIndex)));
+		}
+	}
+
+	/**
+	 * Looks up the actions of the queued records, by using only their strings.
+	 */
+	private void _dispatch(ObserverIndex observerIndex) {
+		long start = dispatchLatency.start();
+		dispatchScheduled.set(false);
+
+		MutationRecord record;
+
+		while ((record = mutationRecords.poll()) != null) {
+			for (Object action : observerIndex.getActions(record.getType(), record.getTargetNamespace(),
+					record.getTargetLocalName(), record.getAttributeName())) {
+				invocations.offer(new Invocation(record.getTarget(), action));
+			}
+		}
+		dispatchLatency.stop(start);
+
+		if (!invocations.isEmpty() && deliveryScheduled.compareAndSet(false, true)) {
+			SwingUtilities.invokeLater(this::_invokeActions);
+		}
+	}
+
+	/**
+	 * Invokes, on the event dispatch thread, the actions looked up so far. An
+	 * action that fails does not prevent the invocation of the other ones.
+	 */
+	private void _invokeActions() {
+		long start = invokeActionsLatency.start();
+		deliveryScheduled.set(false);
+
+		try {
+			Map<AuthorNode, Set<Object>> invokedActions = new IdentityHashMap<AuthorNode, Set<Object>>();
+			int invocationCount = 0;
+			Invocation invocation;
+
+			while ((invocation = invocations.poll()) != null) {
+				AuthorNode target = invocation.target;
+
+				if (target.getParent() == null) {
+					continue;
+				}
+
+				if (invokedActions.computeIfAbsent(target, key -> new HashSet<Object>()).add(invocation.action)) {
+					_invokeAction((AbstractAction) invocation.action, target);
+					invocationCount++;
 				}
 			}
+
+			logger.debug(invocationCount + " actions invoked for " + invokedActions.size() + " targets");
+		} finally {
+			invokeActionsLatency.stop(start);
+		}
+	}
+
+	private void _invokeAction(AbstractAction action, AuthorNode target) {
+		LatencyRecorder actionLatency = _getActionLatency(action);
+		long start = actionLatency.start();
+
+		try {
+			action.setEnabled(true);
+			authorActionsProvider.invokeAuthorExtensionActionInContext(action, target.getStartOffset() + 1);
+		} catch (RuntimeException e) {
+			logger.error("the action " + action.getValue(Action.NAME) + " failed", e);
+		} finally {
+			actionLatency.stop(start);
+		}
+	}
+
+	/**
+	 * Returns the recorder of the action, named after it, as
+	 * <code>ProcessMutationRecord.action.delete</code>.
+	 */
+	private static LatencyRecorder _getActionLatency(AbstractAction action) {
+		// the name of the recorder is built only when the recorders are enabled
+		if (!LatencyRecorders.enabled) {
+			return invokeActionsLatency;
 		}
 
+		return LatencyRecorders.get("ProcessMutationRecord.action." + action.getValue(Action.NAME));
 	}
 
-	public void characterData() {
+	/**
+	 * Called only on the event dispatch thread.
+	 */
+	private ObserverIndex _getObserverIndex() {
+		if (observerIndex == null) {
+			observerIndex = new ObserverIndex(SerialisedObjects.getConnectObserverActions(),
+					SerialisedObjects.getNodeSelectors(), SerialisedObjects.getObservers(),
+					authorActionsProvider.getAuthorExtensionActions(), SerialisedObjects.getVariablesModule());
+			logger.debug("observerIndex is empty = " + observerIndex.isEmpty());
+		}
 
+		return observerIndex;
 	}
 
-	public void childList() {
+	private static class Invocation {
+		private final AuthorNode target;
+		private final Object action;
 
+		private Invocation(AuthorNode target, Object action) {
+			this.target = target;
+			this.action = action;
+		}
 	}
 
 }
@@ -20,7 +20,6 @@ import ro.sync.ecss.extensions.api.ArgumentsMap;
 import ro.sync.ecss.extensions.api.AuthorAccess;
 import ro.sync.ecss.extensions.api.AuthorConstants;
 import ro.sync.ecss.extensions.api.AuthorDocumentController;
-import ro.sync.ecss.extensions.api.AuthorOperation;
 import ro.sync.ecss.extensions.api.AuthorOperationException;
 import ro.sync.ecss.extensions.api.access.AuthorEditorAccess;
 import ro.sync.ecss.extensions.api.node.AuthorDocumentFragment;
@@ -34,7 +33,7 @@ import ro.sync.exml.workspace.api.listeners.WSEditorListener;
 import ro.sync.exml.workspace.api.options.WSOptionsStorage;
 import ro.sync.exml.workspace.api.util.UtilAccess;
 
-public class EditDocumentFragmentInNewTabOperation implements AuthorOperation {
+public class EditDocumentFragmentInNewTabOperation implements StatelessOperation {
 
 	/**
 	 * This operation is designated to allow editing of XML fragment of a main
@@ -14,11 +14,10 @@ import org.apache.log4j.Logger;
 import ro.sync.ecss.extensions.api.ArgumentDescriptor;
 import ro.sync.ecss.extensions.api.ArgumentsMap;
 import ro.sync.ecss.extensions.api.AuthorAccess;
-import ro.sync.ecss.extensions.api.AuthorOperation;
 import ro.sync.ecss.extensions.api.AuthorOperationException;
 import ro.sync.exml.editor.EditorPageConstants;
 
-public class EditDocumentInNewTabOperation implements AuthorOperation {
+public class EditDocumentInNewTabOperation implements StatelessOperation {
 
 	/**
 	 * This operation is designated to allow editing of XML fragment of a main
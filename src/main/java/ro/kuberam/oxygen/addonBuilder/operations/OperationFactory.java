@@ -0,0 +1,104 @@
+package ro.kuberam.oxygen.addonBuilder.operations;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.log4j.Logger;
+
+import ro.kuberam.oxygen.addonBuilder.instrumentation.LatencyRecorder;
+import ro.kuberam.oxygen.addonBuilder.instrumentation.LatencyRecorders;
+import ro.sync.ecss.extensions.api.AuthorOperation;
+
+/**
+ * Creates the operations by the name of their class. The constructor of each
+ * class is resolved only once, and the {@link StatelessOperation}s are
+ * created only once.
+ *
+ * The latencies of the resolutions and of the instantiations are recorded by
+ * the <code>OperationFactory.resolve</code> and
+ * <code>OperationFactory.instantiate</code> recorders.
+ *
+ * @author Claudius Teodorescu
+ */
+public class OperationFactory {
+
+	/**
+	 * Logger for logging.
+	 */
+	private static final Logger logger = Logger.getLogger(OperationFactory.class.getName());
+
+	private static final MethodType constructorType = MethodType.methodType(void.class);
+	private static final MethodType factoryType = MethodType.methodType(AuthorOperation.class);
+
+	private static final Map<String, MethodHandle> constructors = new ConcurrentHashMap<String, MethodHandle>();
+	private static final Map<String, AuthorOperation> statelessOperations = new ConcurrentHashMap<String, AuthorOperation>();
+
+	private static final LatencyRecorder resolutionLatency = LatencyRecorders.get("OperationFactory.resolve");
+	private static final LatencyRecorder instantiationLatency = LatencyRecorders.get("OperationFactory.instantiate");
+
+	/**
+	 * Resolves the class of the operation in advance, as the warm-up of the
+	 * framework does.
+	 */
+	public static void resolve(String className) throws ReflectiveOperationException {
+		_getConstructor(className);
+	}
+
+	/**
+	 * Returns a new instance of the operation, or the only instance of a
+	 * {@link StatelessOperation}.
+	 */
+	public static AuthorOperation getInstance(String className) throws ReflectiveOperationException {
+		AuthorOperation operation = statelessOperations.get(className);
+		if (operation != null) {
+			return operation;
+		}
+
+		MethodHandle constructor = _getConstructor(className);
+
+		long start = instantiationLatency.start();
+		try {
+			operation = (AuthorOperation) constructor.invokeExact();
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new InvocationTargetException(e);
+		} finally {
+			instantiationLatency.stop(start);
+		}
+		logger.debug("instantiated " + className);
+
+		if (operation instanceof StatelessOperation) {
+			AuthorOperation previousOperation = statelessOperations.putIfAbsent(className, operation);
+			if (previousOperation != null) {
+				operation = previousOperation;
+			}
+		}
+
+		return operation;
+	}
+
+	private static MethodHandle _getConstructor(String className) throws ReflectiveOperationException {
+		MethodHandle constructor = constructors.get(className);
+
+		if (constructor == null) {
+			long start = resolutionLatency.start();
+
+			try {
+				Class<?> operationClass = Class.forName(className);
+				constructor = MethodHandles.lookup().findConstructor(operationClass, constructorType)
+						.asType(factoryType);
+				constructors.put(className, constructor);
+			} finally {
+				resolutionLatency.stop(start);
+			}
+			logger.debug("resolved " + className);
+		}
+
+		return constructor;
+	}
+}
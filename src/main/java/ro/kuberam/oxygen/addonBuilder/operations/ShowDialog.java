@@ -8,17 +8,16 @@ import javax.swing.JTextArea;
 
 import org.apache.log4j.Logger;
 
+import ro.kuberam.oxygen.addonBuilder.SerialisedObjects;
 import ro.kuberam.oxygen.addonBuilder.javafx.DialogModel;
 import ro.kuberam.oxygen.addonBuilder.javafx.JavaFXDialog;
 import ro.kuberam.oxygen.addonBuilder.javafx.bridges.BaseBridge;
-import ro.kuberam.oxygen.addonBuilder.mutations.ProcessMutationRecord;
 import ro.sync.ecss.extensions.api.ArgumentDescriptor;
 import ro.sync.ecss.extensions.api.ArgumentsMap;
 import ro.sync.ecss.extensions.api.AuthorAccess;
-import ro.sync.ecss.extensions.api.AuthorOperation;
 import ro.sync.ecss.extensions.api.AuthorOperationException;
 
-public class ShowDialog implements AuthorOperation {
+public class ShowDialog implements StatelessOperation {
 
 	/**
 	 * Logger for logging.
@@ -54,7 +53,7 @@ public class ShowDialog implements AuthorOperation {
 		logger.debug("dialogId = " + dialogId);
 
 		JFrame parentFrame = (JFrame) authorAccess.getWorkspaceAccess().getParentFrame();
-		DialogModel dialog = ProcessMutationRecord.dialogs.get(dialogId);
+		DialogModel dialog = SerialisedObjects.getDialogs().get(dialogId);
 		logger.debug("dialog = " + dialog.toString());
 		dialog.setJavafxBridge(new BaseBridge());
 		
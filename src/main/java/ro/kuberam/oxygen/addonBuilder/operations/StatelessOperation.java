@@ -0,0 +1,13 @@
+package ro.kuberam.oxygen.addonBuilder.operations;
+
+import ro.sync.ecss.extensions.api.AuthorOperation;
+
+/**
+ * An operation that keeps no state between its calls, so that
+ * {@link OperationFactory} creates only one instance of it.
+ *
+ * @author Claudius Teodorescu
+ */
+public interface StatelessOperation extends AuthorOperation {
+
+}
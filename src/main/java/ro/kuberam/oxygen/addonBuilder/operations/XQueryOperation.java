@@ -1,6 +1,9 @@
 package ro.kuberam.oxygen.addonBuilder.operations;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -8,6 +11,7 @@ import java.io.InputStream;
 import java.io.Reader;
 import java.net.URI;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 
@@ -31,6 +35,7 @@ import net.sf.saxon.s9api.XdmNode;
 import net.sf.saxon.s9api.XdmNodeKind;
 import net.sf.saxon.s9api.XdmSequenceIterator;
 import net.sf.saxon.s9api.XdmValue;
+import ro.kuberam.oxygen.addonBuilder.utils.HashUtilities;
 
 public class XQueryOperation {
 
@@ -39,44 +44,152 @@ public class XQueryOperation {
 	 */
 	private static final Logger logger = Logger.getLogger(XQueryOperation.class.getName());
 
+	private static final Processor processor = new Processor(true);
+
+	private static final int compiledQueriesMaxSize = 32;
+
+	/**
+	 * The compiled queries, by the hash of their text or by their file path and
+	 * timestamp, and by their base URI. An executable is thread safe, and a
+	 * new evaluator is loaded from it for each evaluation, so that no external
+	 * variable or source document is kept from a previous evaluation.
+	 */
+	private static final Map<String, XQueryExecutable> compiledQueries = new LinkedHashMap<String, XQueryExecutable>(
+			16, 0.75f, true) {
+		private static final long serialVersionUID = -3541928813358462219L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, XQueryExecutable> eldest) {
+			return size() > compiledQueriesMaxSize;
+		}
+	};
+
 	public static XdmValue query(Reader xml, InputStream xquery, boolean omitXmlDeclaration, URI baseURI,
 			Map<String, String> parameters) {
 		XdmValue result = null;
 
-		Source xmlSrc = new StreamSource(xml);
-
-		Processor proc = new Processor(true);
-		XQueryCompiler xqueryCompiler = proc.newXQueryCompiler();
+		try {
+			// the query is compiled from its bytes, as its encoding declaration
+			// is taken into account
+			byte[] xqueryContent = _read(xquery);
+			XQueryExecutable compiledQuery = getCompiledQuery("hash:" + HashUtilities.hash(xqueryContent), baseURI, false,
+					compiler -> compiler.compile(new ByteArrayInputStream(xqueryContent)));
 
-		if (baseURI != null) {
-			xqueryCompiler.setBaseURI(baseURI);
+			result = _evaluate(compiledQuery, xml, parameters);
+		} catch (SaxonApiException e) {
+			e.printStackTrace();
+		} catch (IOException e) {
+			e.printStackTrace();
 		}
 
-		XQueryExecutable xqueryExecutable;
+		return result;
+	}
+
+	public static XdmValue query(Reader xml, File xquery, boolean omitXmlDeclaration, URI baseURI,
+			Map<String, String> parameters) {
+		XdmValue result = null;
+
 		try {
-			xqueryExecutable = xqueryCompiler.compile(xquery);
-			XQueryEvaluator xqueryEvaluator = xqueryExecutable.load();
-			xqueryEvaluator.setSource(xmlSrc);
+			XQueryExecutable compiledQuery = getCompiledQuery(_getFileKey(xquery), baseURI, false,
+					compiler -> _compile(compiler, xquery));
 
-			for (Entry<String, String> parameter : parameters.entrySet()) {
-				xqueryEvaluator.setExternalVariable(new QName(parameter.getKey()),
-						new XdmAtomicValue(parameter.getValue()));
-			}
+			result = _evaluate(compiledQuery, xml, parameters);
+		} catch (SaxonApiException e) {
+			e.printStackTrace();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
 
-			result = xqueryEvaluator.evaluate();
+		return result;
+	}
+
+	/**
+	 * Compiles the query in advance, for a later call of
+	 * {@link #query(Reader, InputStream, boolean, URI, Map)}.
+	 */
+	public static void compile(String xquery, URI baseURI) {
+		try {
+			getCompiledQuery("hash:" + HashUtilities.hash(xquery), baseURI, false, compiler -> compiler.compile(xquery));
 		} catch (SaxonApiException e) {
 			e.printStackTrace();
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
+	}
+
+	private static XdmValue _evaluate(XQueryExecutable compiledQuery, Reader xml, Map<String, String> parameters)
+			throws SaxonApiException {
+		XdmValue result = null;
+
+		Source xmlSrc = new StreamSource(xml);
+
+		XQueryEvaluator xqueryEvaluator = compiledQuery.load();
+		xqueryEvaluator.setSource(xmlSrc);
+
+		for (Entry<String, String> parameter : parameters.entrySet()) {
+			xqueryEvaluator.setExternalVariable(new QName(parameter.getKey()),
+					new XdmAtomicValue(parameter.getValue()));
+		}
+
+		result = xqueryEvaluator.evaluate();
 
 		return result;
+	}
+
+	private static byte[] _read(InputStream inputStream) throws IOException {
+		ByteArrayOutputStream content = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
 
+		for (int length; (length = inputStream.read(buffer)) != -1;) {
+			content.write(buffer, 0, length);
+		}
+
+		return content.toByteArray();
 	}
 
-	public static void update(File xml, File query) {
-		Processor processor = new Processor(true);
+	private interface QueryCompilation {
+		XQueryExecutable compile(XQueryCompiler compiler) throws SaxonApiException, IOException;
+	}
+
+	private static XQueryExecutable getCompiledQuery(String key, URI baseURI, boolean updatingEnabled,
+			QueryCompilation queryCompilation) throws SaxonApiException, IOException {
+		key = key + "|" + baseURI + "|" + updatingEnabled;
+
+		synchronized (compiledQueries) {
+			XQueryExecutable compiledQuery = compiledQueries.get(key);
+			if (compiledQuery != null) {
+				return compiledQuery;
+			}
+		}
+
+		XQueryCompiler xqueryCompiler = processor.newXQueryCompiler();
+		xqueryCompiler.setUpdatingEnabled(updatingEnabled);
 
+		if (baseURI != null) {
+			xqueryCompiler.setBaseURI(baseURI);
+		}
+
+		XQueryExecutable compiledQuery = queryCompilation.compile(xqueryCompiler);
+		logger.debug("compiled the query " + key);
+
+		synchronized (compiledQueries) {
+			compiledQueries.put(key, compiledQuery);
+		}
+
+		return compiledQuery;
+	}
+
+	private static String _getFileKey(File file) {
+		return "file:" + file.getAbsolutePath() + ":" + file.lastModified() + ":" + file.length();
+	}
+
+	private static XQueryExecutable _compile(XQueryCompiler compiler, File xquery) throws SaxonApiException, IOException {
+		try (InputStream xqueryStream = new FileInputStream(xquery)) {
+			return compiler.compile(xqueryStream);
+		}
+	}
+
+	public static void update(File xml, File query) {
 		DocumentBuilder builder = processor.newDocumentBuilder();
 		builder.setTreeModel(TreeModel.LINKED_TREE);
 		XdmNode source = null;
@@ -86,16 +199,10 @@ public class XQueryOperation {
 			e2.printStackTrace();
 		}
 
-		XQueryCompiler comp = processor.newXQueryCompiler();
-		comp.setUpdatingEnabled(true);
-		// comp.setBaseURI(addonDirectory.toURI());
-
-		XQueryExecutable exp;
 		XQueryEvaluator eval = null;
 		try {
-			exp = comp.compile(query);
-
-			eval = exp.load();
+			eval = getCompiledQuery(_getFileKey(query), null, true, compiler -> _compile(compiler, query))
+					.load();
 			eval.setContextItem(source);
 			eval.run();
 		} catch (SaxonApiException e1) {
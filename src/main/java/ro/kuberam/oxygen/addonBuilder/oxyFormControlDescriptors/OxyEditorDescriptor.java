@@ -319,11 +319,32 @@ public class OxyEditorDescriptor {
 	}
 
 	public String toString() {
-		return ("oxy_editor(" + getType() + getRendererClassName() + getSwingEditorClassName() + getEdit()
-				+ getActionID() + getAction() + getActionContext() + getTransparent() + getVisible() + getDisabled()
-				+ getShowIcon() + getValues() + getLabels() + getColumns() + getRows() + getContentType()
-				+ getSelectionMode() + getEditable() + getColor() + getUncheckedValues() + getHasMultipleValues()
-				+ getHref() + getWidth() + getHeight() + getCustomProperties()).replaceAll(", $", "") + ")";
+		StringBuilder result = new StringBuilder();
+		appendTo(result);
+
+		return result.toString();
+	}
+
+	/**
+	 * Appends the oxy_editor() function, as {@link #toString()} returns it.
+	 */
+	public void appendTo(StringBuilder result) {
+		int start = result.length();
+
+		result.append("oxy_editor(").append(getType()).append(getRendererClassName())
+				.append(getSwingEditorClassName()).append(getEdit()).append(getActionID()).append(getAction())
+				.append(getActionContext()).append(getTransparent()).append(getVisible()).append(getDisabled())
+				.append(getShowIcon()).append(getValues()).append(getLabels()).append(getColumns()).append(getRows())
+				.append(getContentType()).append(getSelectionMode()).append(getEditable()).append(getColor())
+				.append(getUncheckedValues()).append(getHasMultipleValues()).append(getHref()).append(getWidth())
+				.append(getHeight()).append(getCustomProperties());
+
+		int length = result.length();
+		if (length - start >= 2 && result.charAt(length - 2) == ',' && result.charAt(length - 1) == ' ') {
+			result.setLength(length - 2);
+		}
+
+		result.append(")");
 	}
 
 	public String shortDescription() {
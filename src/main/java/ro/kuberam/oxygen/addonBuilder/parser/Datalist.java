@@ -1,6 +1,12 @@
 package ro.kuberam.oxygen.addonBuilder.parser;
 
-public class Datalist {
+import java.io.Serializable;
+
+public class Datalist implements Serializable {
+	/**
+	 *
+	 */
+	private static final long serialVersionUID = 5403175306285932361L;
 	private String id;
 	private String labels;
 	private String values;
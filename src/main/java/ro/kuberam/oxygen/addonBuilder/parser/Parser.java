@@ -4,16 +4,21 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Scanner;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -30,7 +35,6 @@ import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 
 import org.apache.log4j.Logger;
-import org.w3c.dom.DOMException;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.NamedNodeMap;
@@ -40,8 +44,7 @@ import org.w3c.dom.NodeList;
 import ro.kuberam.oxygen.addonBuilder.javafx.DialogModel;
 import ro.kuberam.oxygen.addonBuilder.mutations.ObserverConnection;
 import ro.kuberam.oxygen.addonBuilder.oxyFormControlDescriptors.OxyEditorDescriptor;
-import ro.kuberam.oxygen.addonBuilder.parser.XQuery30.ParseException;
-import ro.kuberam.oxygen.addonBuilder.parser.XQuery30.XmlSerializer;
+import ro.kuberam.oxygen.addonBuilder.utils.HashUtilities;
 import ro.kuberam.oxygen.addonBuilder.utils.XML;
 
 public class Parser {
@@ -51,10 +54,26 @@ public class Parser {
 	 */
 	private static final Logger logger = Logger.getLogger(Parser.class.getName());
 
+	/**
+	 * The transformer factory used by the parser, which is created explicitly,
+	 * as the parser can run in the JVM of Oxygen, where the factory set by the
+	 * system property is used by the other threads.
+	 */
+	static final String transformerFactoryClassName = "com.sun.org.apache.xalan.internal.xsltc.trax.TransformerFactoryImpl";
+
+	private ByteArrayOutputStream actionsOutput;
 	private XMLStreamWriter actionsWriter;
 	private ArrayList<String> actionsWithCaretContext = new ArrayList<String>();
 	private ArrayList<SimpleAction> simpleActions = new ArrayList<SimpleAction>();
 	private ParsingResult parsingResult;
+	private boolean incremental;
+	/**
+	 * Whether the templates can be processed in parallel, disabled by the tests
+	 * comparing the parallel processing with the serial one.
+	 */
+	boolean parallel = true;
+	private ParserCache parserCache;
+	private Map<SyntaxNode, CompletableFuture<TemplateArtifacts>> processedTemplates = new HashMap<>();
 
 	private static String[] actionParameters = { "name", "description", "largeIconPath", "smallIconPath", "accessKey",
 			"accelerator" };
@@ -65,8 +84,10 @@ public class Parser {
 	// private static Pattern isAttributePattern = Pattern.compile("@.+$");
 	// private static Pattern variablePattern =
 	// Pattern.compile("(\\$)([A-Za-z_-]+)");
-	private static String oxyXpathExpressionStartMarker = "oxy_xpath_start";
-	private static String oxyXpathExpressionEndMarker = "oxy_xpath_end";
+	private static String oxyXpathExpressionStartMarker = TextScanner.oxyXpathExpressionStartMarker;
+	private static String oxyXpathExpressionEndMarker = TextScanner.oxyXpathExpressionEndMarker;
+	private static Pattern optionsSeparatorPattern = Pattern.compile(",\\s+\"");
+	private static Pattern valuesSeparatorPattern = Pattern.compile("\\s*,\\s*");
 	private static ArrayList<String> builtinFormControlNames = new ArrayList<String>();
 	private static String baseTreeGeneratorTemplate;
 
@@ -84,6 +105,44 @@ public class Parser {
 	}
 
 	public Parser(File addonDirectory, String frameworkId, File targetDirectory) throws Exception {
+		this(addonDirectory, frameworkId, targetDirectory, false);
+	}
+
+	/**
+	 * In the incremental mode, the artifacts of the ua:template declarations
+	 * that did not change since the previous run are reused, and the
+	 * action-array of the framework descriptor is rewritten only if it changed.
+	 */
+	public Parser(File addonDirectory, String frameworkId, File targetDirectory, boolean incremental)
+			throws Exception {
+		this(incremental);
+
+		File frameworkDescriptor = new File(addonDirectory + File.separator + frameworkId + ".framework");
+		logger.debug("frameworkDescriptor in Parser class = " + frameworkDescriptor);
+
+		SyntaxNode syntaxTree = SyntaxTreeBuilder.parse(readFrameworkDescriptor(addonDirectory));
+
+		processDeclarations(syntaxTree, addonDirectory);
+
+		writeActionArray(frameworkDescriptor);
+
+		// write the files with observers, actions by class, etc.
+		parsingResult.writeToFile(targetDirectory, addonDirectory);
+
+		if (incremental) {
+			parserCache.save(addonDirectory);
+		}
+	}
+
+	/**
+	 * Used to run the stages of the parsing separately, as the benchmarks do.
+	 */
+	Parser(boolean incremental) {
+		this.incremental = incremental;
+		parsingResult = new ParsingResult();
+	}
+
+	static String readFrameworkDescriptor(File addonDirectory) throws IOException {
 		File sourceFile = new File(addonDirectory + File.separator + "addon.xq");
 		byte buffer[] = new byte[(int) sourceFile.length()];
 		java.io.FileInputStream stream = new FileInputStream(sourceFile);
@@ -95,87 +154,68 @@ public class Parser {
 				&& xqueryFrameworkDescriptorAsString.charAt(0) == '\uFEFF')
 						? xqueryFrameworkDescriptorAsString.substring(1)
 						: xqueryFrameworkDescriptorAsString;
-		File frameworkDescriptor = new File(addonDirectory + File.separator + frameworkId + ".framework");
-		logger.debug("frameworkDescriptor in Parser class = " + frameworkDescriptor);
 
-		parsingResult = new ParsingResult();
-
-		ByteArrayOutputStream xqueryParserOutput = new ByteArrayOutputStream();
-		Writer w = new OutputStreamWriter(xqueryParserOutput, "UTF-8");
-		XmlSerializer s = new XmlSerializer(w);
-		XQuery30 xqueryParser = new XQuery30(xqueryFrameworkDescriptorAsString, s);
-		try {
-			s.writeOutput("<?xml version=\"1.0\" encoding=\"UTF-8\"?" + ">");
-			xqueryParser.parse_XQuery();
-		} catch (ParseException pe) {
-			throw new RuntimeException("ParseException while processing " + xqueryFrameworkDescriptorAsString + ":\n"
-					+ xqueryParser.getErrorMessage(pe));
-		} finally {
-			w.close();
-		}
+		// normalize the line ends, as the XML parsing of the syntax tree used to do
+		return TextScanner.replace(xqueryFrameworkDescriptorAsString, "\r\n", "\n").replace('\r', '\n');
+	}
 
+	/**
+	 * Processes the prolog and the function calls of the syntax tree, and
+	 * generates the action-array.
+	 */
+	void processDeclarations(SyntaxNode syntaxTree, File addonDirectory) throws Exception {
 		// long start = System.nanoTime();
 
 		XMLOutputFactory actionsOutputFactory = XMLOutputFactory.newInstance();
 
-		ByteArrayOutputStream actionsOutput = new ByteArrayOutputStream();
+		actionsOutput = new ByteArrayOutputStream();
 
 		actionsWriter = actionsOutputFactory.createXMLStreamWriter(actionsOutput);
 
 		actionsWriter.writeStartElement("action-array");
 
-		DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-		DocumentBuilder db = dbf.newDocumentBuilder();
-		Document xqueryParserOutputDoc = db.parse(new ByteArrayInputStream(xqueryParserOutput.toByteArray()));
-		Element xqueryParserOutputDocumentElement = xqueryParserOutputDoc.getDocumentElement();
-
 		// process variable declarations
 		StringBuilder prolog = new StringBuilder();
 		prolog.append("declare namespace ua = \"http://expath.org/ns/user-agent\"; ");
 		String delim = "";
 
-		NodeList namespaceDeclElements = xqueryParserOutputDocumentElement.getElementsByTagName("NamespaceDecl");
-		for (int i = 0, il = namespaceDeclElements.getLength(); i < il; i++) {
-			prolog.append(((Element) namespaceDeclElements.item(i)).getTextContent()).append("; ");
+		List<SyntaxNode> namespaceDeclElements = syntaxTree.getElementsByTagName("NamespaceDecl");
+		for (SyntaxNode namespaceDeclElement : namespaceDeclElements) {
+			prolog.append(namespaceDeclElement.getTextContent()).append("; ");
 			delim = "";
 		}
-		IntStream.range(0, namespaceDeclElements.getLength()).mapToObj(namespaceDeclElements::item)
-				.filter(Element.class::isInstance).map(Element.class::cast).forEach(el -> {
-					String prefix = el.getElementsByTagName("NCName").item(1).getTextContent();
-					String uri = el.getElementsByTagName("StringLiteral").item(0).getTextContent();
-					parsingResult.attachedTemplates.add("@namespace " + prefix + " url(" + uri + ");");
-				});
+		namespaceDeclElements.forEach(el -> {
+			String prefix = el.getElementsByTagName("NCName").get(1).getTextContent();
+			String uri = el.getElementsByTagName("StringLiteral").get(0).getTextContent();
+			parsingResult.attachedTemplates.add("@namespace " + prefix + " url(" + uri + ");");
+		});
 		parsingResult.initializeAttachedTemplates();
 
 		delim = "declare ";
-		NodeList varDeclElements = xqueryParserOutputDocumentElement.getElementsByTagName("VarDecl");
-		for (int i = 0, il = varDeclElements.getLength(); i < il; i++) {
-			Element variableElement = (Element) varDeclElements.item(i);
-			String variableName = variableElement.getElementsByTagName("VarName").item(0).getTextContent();
+		List<SyntaxNode> varDeclElements = syntaxTree.getElementsByTagName("VarDecl");
+		for (SyntaxNode variableElement : varDeclElements) {
+			String variableName = variableElement.getElementsByTagName("VarName").get(0).getTextContent();
 			String typeDeclaration = "";
 
-			Node typeDeclarationElement = variableElement.getElementsByTagName("TypeDeclaration").item(0);
-			if (typeDeclarationElement != null) {
-				typeDeclaration = typeDeclarationElement.getTextContent();
+			List<SyntaxNode> typeDeclarationElements = variableElement.getElementsByTagName("TypeDeclaration");
+			if (!typeDeclarationElements.isEmpty()) {
+				typeDeclaration = typeDeclarationElements.get(0).getTextContent();
 			}
 
-			NodeList enclosedExprElements = variableElement.getElementsByTagName("EnclosedExpr");
-
-			for (int j = 0, jl = enclosedExprElements.getLength(); j < jl; j++) {
-				_processEnclosedExpressions(parsingResult, (Element) enclosedExprElements.item(j));
-			}
+			_processEnclosedExpressions(parsingResult.templates, variableElement.getElementsByTagName("EnclosedExpr"));
 
 			if (typeDeclaration.equals("as element()")) {
-				parsingResult.variables.put("$" + variableName, variableElement.getElementsByTagName("VarValue").item(0)
-						.getTextContent().replaceAll("<template>", "").replaceAll("</template>", "").trim());
+				parsingResult.variables.put("$" + variableName, TextScanner.remove(TextScanner.remove(
+						variableElement.getElementsByTagName("VarValue").get(0).getTextContent(), "<template>"),
+						"</template>").trim());
 			}
 
 			if (typeDeclaration.endsWith("string")) {
 				parsingResult.variables.put("$" + variableName,
-						variableElement.getElementsByTagName("VarValue").item(0).getTextContent());
+						variableElement.getElementsByTagName("VarValue").get(0).getTextContent());
 			}
 
-			prolog.append(delim).append(((Element) varDeclElements.item(i)).getTextContent()).append("; ");
+			prolog.append(delim).append(variableElement.getTextContent()).append("; ");
 			delim = "declare ";
 		}
 
@@ -186,20 +226,17 @@ public class Parser {
 		baseTreeGeneratorTemplate = parsingResult.prolog + scanner.useDelimiter("\\A").next();
 		scanner.close();
 
-		System.setProperty("javax.xml.transform.TransformerFactory",
-				"com.sun.org.apache.xalan.internal.xsltc.trax.TransformerFactoryImpl");
+		if (incremental) {
+			parserCache = ParserCache.load(addonDirectory,
+					HashUtilities.hash(baseTreeGeneratorTemplate + ParserCache.getCodeHash()));
+		}
 
-		// Files.write(Paths.get("/home/claudius/a.xml"),
-		// XML.xmlToString(xqueryParserOutputDocumentElement, "no",
-		// "yes").getBytes("UTF-8"),
-		// StandardOpenOption.CREATE);
+		_scheduleTemplates(syntaxTree);
 
 		// process function calls
-		NodeList functionCallElements = xqueryParserOutputDocumentElement.getElementsByTagName("FunctionCall");
-		for (int i = 0, il = functionCallElements.getLength(); i < il; i++) {
-			Element functionCallElement = (Element) functionCallElements.item(i);
-
-			if (functionCallElement == null) {
+		for (SyntaxNode functionCallElement : syntaxTree.getElementsByTagName("FunctionCall")) {
+			// skip the function calls that were replaced along with their ancestors
+			if (!functionCallElement.isAttached()) {
 				continue;
 			}
 
@@ -223,22 +260,22 @@ public class Parser {
 			}
 
 			if (functionName.equals("ua:add-event-listener")) {
-				NodeList argumentElements = functionCallElement.getElementsByTagName("Argument");
+				List<SyntaxNode> argumentElements = functionCallElement.getElementsByTagName("Argument");
 
 				// String eventTarget =
-				// _processStringLiteral(argumentElements.item(0).getTextContent());
-				String eventType = _processStringLiteral(argumentElements.item(1).getTextContent());
-				String listener = argumentElements.item(2).getTextContent();
+				// _processStringLiteral(argumentElements.get(0).getTextContent());
+				String eventType = _processStringLiteral(argumentElements.get(1).getTextContent());
+				String listener = argumentElements.get(2).getTextContent();
 
 				if (eventType.equals("load")) {
 					if (listener.contains("oxy:execute-action-by-name")) {
 						listener = _processStringLiteral(
-								listener.replaceAll("oxy:execute-action-by-name\\(", "").replaceAll("\\)", ""));
+								TextScanner.remove(TextScanner.remove(listener, "oxy:execute-action-by-name("), ")"));
 						parsingResult.actionsByName.add(listener);
 					}
 					if (listener.contains("oxy:execute-action-by-class")) {
 						listener = _processStringLiteral(
-								listener.replaceAll("oxy:execute-action-by-class\\(", "").replaceAll("\\)", ""));
+								TextScanner.remove(TextScanner.remove(listener, "oxy:execute-action-by-class("), ")"));
 						parsingResult.actionsByClass.get("load").add(listener);
 					}
 				}
@@ -286,32 +323,43 @@ public class Parser {
 
 		actionsWriter.writeEndElement();
 		actionsWriter.flush();
+	}
 
-		Document actionsOutputDoc = db.parse(new ByteArrayInputStream(actionsOutput.toByteArray()));
-
-		// write actions to the *.framework file
-		Document frameworkDoc = db.parse(frameworkDescriptor);
-		Node actionArrayElement = frameworkDoc.getDocumentElement().getElementsByTagName("action-array").item(0);
-		Node actionArrayElementParent = actionArrayElement.getParentNode();
-		actionArrayElementParent.removeChild(actionArrayElement);
-
-		actionArrayElementParent.appendChild(frameworkDoc.importNode(actionsOutputDoc.getDocumentElement(), true));
-
-		TransformerFactory transformerFactory = TransformerFactory.newInstance();
-		Transformer transformer = transformerFactory.newTransformer();
-		DOMSource source = new DOMSource(frameworkDoc);
-		StreamResult streamResult = new StreamResult(frameworkDescriptor);
-		transformer.transform(source, streamResult);
+	/**
+	 * Writes the action-array to the *.framework file.
+	 */
+	void writeActionArray(File frameworkDescriptor) throws Exception {
+		if (!incremental || parserCache.isActionArrayChanged(HashUtilities.hash(actionsOutput.toString("UTF-8")))) {
+			DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+			DocumentBuilder db = dbf.newDocumentBuilder();
+
+			Document actionsOutputDoc = db.parse(new ByteArrayInputStream(actionsOutput.toByteArray()));
+
+			Document frameworkDoc = db.parse(frameworkDescriptor);
+			Node actionArrayElement = frameworkDoc.getDocumentElement().getElementsByTagName("action-array").item(0);
+			Node actionArrayElementParent = actionArrayElement.getParentNode();
+			actionArrayElementParent.removeChild(actionArrayElement);
+
+			actionArrayElementParent
+					.appendChild(frameworkDoc.importNode(actionsOutputDoc.getDocumentElement(), true));
+
+			TransformerFactory transformerFactory = TransformerFactory.newInstance(transformerFactoryClassName, null);
+			Transformer transformer = transformerFactory.newTransformer();
+			DOMSource source = new DOMSource(frameworkDoc);
+			StreamResult streamResult = new StreamResult(frameworkDescriptor);
+			transformer.transform(source, streamResult);
+		}
+	}
 
-		// write the files with observers, actions by class, etc.
-		parsingResult.writeToFile(targetDirectory, addonDirectory);
+	ParsingResult getParsingResult() {
+		return parsingResult;
 	}
 
-	private void ua__attach_template(Element functionCallElement, ParsingResult parsingResult) {
-		NodeList argumentElements = functionCallElement.getElementsByTagName("Argument");
+	private void ua__attach_template(SyntaxNode functionCallElement, ParsingResult parsingResult) {
+		List<SyntaxNode> argumentElements = functionCallElement.getElementsByTagName("Argument");
 
-		String nodeSelector = _processNodeSelector(argumentElements.item(0).getTextContent());
-		String templateId = _processStringLiteral(argumentElements.item(2).getTextContent());
+		String nodeSelector = _processNodeSelector(argumentElements.get(0).getTextContent());
+		String templateId = _processStringLiteral(argumentElements.get(2).getTextContent());
 		String template = parsingResult.templates.get(templateId);
 
 		if (template != null && !template.contains("<dialog")) {
@@ -319,73 +367,240 @@ public class Parser {
 		}
 	}
 
-	private void ua__template(Element functionCallElement, ParsingResult parsingResult) {
-		NodeList argumentElements = functionCallElement.getElementsByTagName("Argument");
+	private void ua__template(SyntaxNode functionCallElement, ParsingResult parsingResult) {
+		List<SyntaxNode> argumentElements = functionCallElement.getElementsByTagName("Argument");
 
-		String templateId = _processStringLiteral(argumentElements.item(0).getTextContent());
+		String templateId = _processStringLiteral(argumentElements.get(0).getTextContent());
 		if (parsingResult.templates.containsKey(templateId)) {
 			throw new RuntimeException(ErrorMessages.err_UA01.replace("$id", "'" + templateId + "'"));
 		}
 
-		Element templateContent = (Element) argumentElements.item(1);
-		NodeList enclosedExprElements = templateContent.getElementsByTagName("EnclosedExpr");
+		CompletableFuture<TemplateArtifacts> processedTemplate = processedTemplates.get(functionCallElement);
+		TemplateArtifacts templateArtifacts;
+
+		if (processedTemplate == null) {
+			templateArtifacts = _processTemplate(functionCallElement, parsingResult.templates);
+		} else {
+			try {
+				templateArtifacts = processedTemplate.join();
+			} catch (CompletionException e) {
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				}
+				throw new RuntimeException(e.getCause());
+			}
+		}
+
+		_addTemplateArtifacts(templateArtifacts, parsingResult);
+	}
 
-		for (int i = 0, il = enclosedExprElements.getLength(); i < il; i++) {
-			_processEnclosedExpressions(parsingResult, (Element) enclosedExprElements.item(i));
+	/**
+	 * Processes the ua:template declarations on the common fork-join pool, each
+	 * one as soon as the earlier templates it gets are processed. The results
+	 * are added to the {@link ParsingResult} in document order, by
+	 * {@link #ua__template}.
+	 *
+	 * The declarations are processed serially when the templates they get cannot
+	 * be found before parsing them, namely when a template is got before being
+	 * declared, by a variable, or by a nested declaration.
+	 */
+	private void _scheduleTemplates(SyntaxNode syntaxTree) {
+		if (!parallel) {
+			return;
+		}
+		if (parsingResult.variables.values().stream().anyMatch(value -> value.contains("ua:get-template("))) {
+			return;
 		}
 
+		// the templates, with the ids of the templates they get
+		Map<SyntaxNode, Set<String>> templateElements = new LinkedHashMap<SyntaxNode, Set<String>>();
+		Set<String> templateIds = new HashSet<String>();
+
+		for (SyntaxNode functionCallElement : syntaxTree.getElementsByTagName("FunctionCall")) {
+			if (!functionCallElement.isAttached()
+					|| !functionCallElement.getFirstChild().getFirstChild().getTextContent().equals("ua:template")) {
+				continue;
+			}
+
+			for (SyntaxNode ancestor = functionCallElement.getParentNode(); ancestor != null; ancestor = ancestor
+					.getParentNode()) {
+				if (templateElements.containsKey(ancestor)) {
+					return;
+				}
+			}
+
+			String declaration = functionCallElement.getTextContent();
+			Set<String> dependencyIds = new HashSet<String>();
+
+			if (declaration.contains("ua:get-template(")) {
+				Matcher extractTemplateIdPatternMatcher = extractTemplateIdPattern.matcher(declaration);
+
+				while (extractTemplateIdPatternMatcher.find()) {
+					String dependencyId = extractTemplateIdPatternMatcher.group(3);
+
+					if (!templateIds.contains(dependencyId)) {
+						return;
+					}
+					dependencyIds.add(dependencyId);
+				}
+			}
+
+			templateElements.put(functionCallElement, dependencyIds);
+			templateIds.add(_processStringLiteral(
+					functionCallElement.getElementsByTagName("Argument").get(0).getTextContent()));
+		}
+
+		Map<String, CompletableFuture<TemplateArtifacts>> templatesById = new HashMap<>();
+
+		for (Map.Entry<SyntaxNode, Set<String>> templateElement : templateElements.entrySet()) {
+			SyntaxNode functionCallElement = templateElement.getKey();
+			Map<String, CompletableFuture<TemplateArtifacts>> dependencies = new HashMap<>();
+
+			for (String dependencyId : templateElement.getValue()) {
+				dependencies.put(dependencyId, templatesById.get(dependencyId));
+			}
+
+			CompletableFuture<TemplateArtifacts> processedTemplate = CompletableFuture
+					.allOf(dependencies.values().toArray(new CompletableFuture<?>[0])).thenApplyAsync(v -> {
+						Map<String, String> templates = new HashMap<String, String>();
+
+						for (Map.Entry<String, CompletableFuture<TemplateArtifacts>> dependency : dependencies
+								.entrySet()) {
+							String dependencyId = dependency.getKey();
+							templates.put(dependencyId, dependency.getValue().join().templates.get(dependencyId));
+						}
+
+						return _processTemplate(functionCallElement, templates);
+					}, ForkJoinPool.commonPool());
+
+			templatesById.put(_processStringLiteral(
+					functionCallElement.getElementsByTagName("Argument").get(0).getTextContent()), processedTemplate);
+			processedTemplates.put(functionCallElement, processedTemplate);
+		}
+	}
+
+	/**
+	 * Processes a ua:template declaration, by getting the templates it refers
+	 * from the given map, and returns what it adds to the {@link ParsingResult}.
+	 */
+	private TemplateArtifacts _processTemplate(SyntaxNode functionCallElement, Map<String, String> templates) {
+		List<SyntaxNode> argumentElements = functionCallElement.getElementsByTagName("Argument");
+
+		String templateId = _processStringLiteral(argumentElements.get(0).getTextContent());
+		SyntaxNode templateContent = argumentElements.get(1);
+
+		String declarationHash = null;
+		if (incremental) {
+			declarationHash = _hashTemplateDeclaration(functionCallElement, templates);
+			TemplateArtifacts cachedTemplateArtifacts = parserCache.getTemplateArtifacts(declarationHash);
+
+			if (cachedTemplateArtifacts != null) {
+				// the function calls nested in the template are skipped, as
+				// when the template is processed
+				templateContent.setTextContent("");
+
+				return cachedTemplateArtifacts;
+			}
+		}
+
+		TemplateArtifacts templateArtifacts = new TemplateArtifacts();
+
+		_processEnclosedExpressions(templates, templateContent.getElementsByTagName("EnclosedExpr"));
+
 		String templateContentAsString = templateContent.getTextContent();
 
 		NodeList templateContentChildNodes = XML.parse(templateContentAsString).getChildNodes();
 		int templateContentLength = templateContentChildNodes.getLength();
-		String processedTemplateContent = "";
+		StringBuilder templateContentBuilder = new StringBuilder();
 
 		for (int i = 0, il = templateContentLength; i < il; i++) {
-			processedTemplateContent += _processHTMLTemplateContent(templateContentChildNodes.item(i), parsingResult,
-					templateId);
+			_processHTMLTemplateContent(templateContentChildNodes.item(i), templates, templateArtifacts, templateId,
+					templateContentBuilder);
 		}
 
-		processedTemplateContent = processedTemplateContent.trim();
+		String processedTemplateContent = templateContentBuilder.toString().trim();
 
 		if (processedTemplateContent.length() != 0) {
-			parsingResult.templates.put(templateId, processedTemplateContent);
+			templateArtifacts.templates.put(templateId, processedTemplateContent);
+		}
+
+		if (incremental) {
+			parserCache.putTemplateArtifacts(declarationHash, templateArtifacts);
 		}
+
+		return templateArtifacts;
 	}
 
-	private void _processEnclosedExpressions(ParsingResult parsingResult, Element enclosedExprElement) {
-		NodeList varRefElements = enclosedExprElement.getElementsByTagName("VarRef");
-		int varRefElementsNumber = varRefElements.getLength();
+	/**
+	 * The output of a template depends on its declaration and on the templates
+	 * it gets, while the prolog is part of the context of the cache.
+	 */
+	private String _hashTemplateDeclaration(SyntaxNode functionCallElement, Map<String, String> templates) {
+		String declaration = functionCallElement.getTextContent();
+		StringBuilder content = new StringBuilder(declaration);
 
-		String enclosedExpressionTextContent = enclosedExprElement.getTextContent().trim();
+		Matcher extractTemplateIdPatternMatcher = extractTemplateIdPattern.matcher(declaration);
+		while (extractTemplateIdPatternMatcher.find()) {
+			content.append('\u0000').append(templates.get(extractTemplateIdPatternMatcher.group(3)));
+		}
+
+		return HashUtilities.hash(content.toString());
+	}
+
+	private void _addTemplateArtifacts(TemplateArtifacts templateArtifacts, ParsingResult parsingResult) {
+		for (Datalist datalist : templateArtifacts.datalists) {
+			String id = datalist.getId();
+			boolean idExists = parsingResult.datalists.stream().map(Datalist::getId).anyMatch(id::equals);
 
-		if (varRefElementsNumber > 0) {
-			for (int i = 0, il = varRefElementsNumber; i < il; i++) {
-				Node varRefElement = varRefElements.item(i);
-				String variableName = varRefElement.getTextContent();
-				String variableValue = parsingResult.variables.get(variableName);
-				variableValue = (variableValue != null) ? variableValue : variableName;
+			if (!idExists) {
+				parsingResult.templates.put(id, datalist.getValues());
+				parsingResult.datalists.add(datalist);
+			}
+		}
+		parsingResult.templates.putAll(templateArtifacts.templates);
+		parsingResult.dialogs.putAll(templateArtifacts.dialogs);
+		parsingResult.actions.addAll(templateArtifacts.actions);
+		for (String[] simpleAction : templateArtifacts.simpleActions) {
+			simpleActions.add(new SimpleAction(simpleAction[0], simpleAction[1], simpleAction[2]));
+		}
+	}
 
-				enclosedExpressionTextContent = enclosedExpressionTextContent.replace(variableName, variableValue);
+	private void _processEnclosedExpressions(Map<String, String> templates, List<SyntaxNode> enclosedExprElements) {
+		for (SyntaxNode enclosedExprElement : enclosedExprElements) {
+			// the nested enclosed expressions are processed along with the
+			// outermost one
+			if (enclosedExprElement.isAttached()) {
+				_processEnclosedExpression(templates, enclosedExprElement);
 			}
 		}
+	}
 
-		enclosedExpressionTextContent = _processXpathExpression(enclosedExpressionTextContent, parsingResult);
+	private void _processEnclosedExpression(Map<String, String> templates, SyntaxNode enclosedExprElement) {
+		String enclosedExpressionTextContent = enclosedExprElement.getTextContent().trim();
 
-		if (enclosedExpressionTextContent.startsWith("oxy_xpath_start<")) {
-			enclosedExpressionTextContent = enclosedExpressionTextContent.replace("oxy_xpath_start", "")
-					.replace("oxy_xpath_end", "");
+		for (SyntaxNode varRefElement : enclosedExprElement.getElementsByTagName("VarRef")) {
+			String variableName = varRefElement.getTextContent();
+			String variableValue = parsingResult.variables.get(variableName);
+			variableValue = (variableValue != null) ? variableValue : variableName;
 
+			enclosedExpressionTextContent = TextScanner.replace(enclosedExpressionTextContent, variableName,
+					variableValue);
 		}
 
-		enclosedExprElement.setTextContent("");
+		enclosedExpressionTextContent = _processXpathExpression(enclosedExpressionTextContent, templates);
+
+		if (enclosedExpressionTextContent.startsWith("oxy_xpath_start<")) {
+			enclosedExpressionTextContent = TextScanner.removeMarkers(enclosedExpressionTextContent);
+
+		}
 
 		enclosedExprElement.setTextContent(enclosedExpressionTextContent);
 	}
 
-	private String _processXpathExpression(String xpathExpression, ParsingResult parsingResult) {
+	private String _processXpathExpression(String xpathExpression, Map<String, String> templates) {
 		String result = "";
 
-		xpathExpression = xpathExpression.replaceAll("^\\s*\\{\\s*", "").replaceAll("\\s*\\}\\s*$", "");
+		xpathExpression = TextScanner.removeCurlyBraces(xpathExpression);
 
 		result = oxyXpathExpressionStartMarker + xpathExpression + oxyXpathExpressionEndMarker;
 
@@ -395,8 +610,8 @@ public class Parser {
 			while (extractTemplateIdPatternMatcher.find()) {
 				String templateId = extractTemplateIdPatternMatcher.group(3);
 				String templateFunctionCall = extractTemplateIdPatternMatcher.group();
-				xpathExpression = xpathExpression.replace(templateFunctionCall,
-						parsingResult.templates.get(templateId) + " ");
+				xpathExpression = TextScanner.replace(xpathExpression, templateFunctionCall,
+						templates.get(templateId) + " ");
 			}
 
 			result = "<template>" + xpathExpression + "</template>";
@@ -405,58 +620,59 @@ public class Parser {
 		return result;
 	}
 
-	private String _processHTMLTemplateContent(Node node, ParsingResult parsingResult, String templateId) {
-		String result = "";
-
+	private void _processHTMLTemplateContent(Node node, Map<String, String> templates,
+			TemplateArtifacts templateArtifacts, String templateId, StringBuilder templateContent) {
 		switch (node.getNodeType()) {
 		case Node.ELEMENT_NODE:
 			String nodeName = node.getNodeName();
 
 			if (nodeName.equals("button")) {
-				result = buttonElementTemplate(node);
+				buttonElementTemplate(node, templateArtifacts, templateContent);
 			}
 			if (nodeName.equals("input")) {
-				result = inputHTMLElementTemplate(node, parsingResult);
+				inputHTMLElementTemplate(node, templates, templateContent);
 			}
 			if (nodeName.equals("select")) {
-				result = selectHTMLElementTemplate(node, parsingResult);
+				selectHTMLElementTemplate(node, templates, templateContent);
 			}
 			if (nodeName.equals("template")) {
 				String textContent = node.getTextContent().trim();
-				result = _processOxyGetTemplate(textContent);
+				templateContent.append(_processOxyGetTemplate(textContent));
 			}
 			if (nodeName.equals("textarea")) {
-				result = textAreaHTMLElementTemplate(node, parsingResult);
+				textAreaHTMLElementTemplate(node, templates, templateContent);
 			}
 			if (nodeName.equals("dialog")) {
-				result = dialogHTMLElementTemplate(templateId, node, parsingResult);
+				dialogHTMLElementTemplate(templateId, node, templateArtifacts, templateContent);
 			}
 			if (nodeName.equals("datalist")) {
-				result = datalistHTMLElementTemplate(node);
+				datalistHTMLElementTemplate(node, templateArtifacts);
 			}
 			if (nodeName.equals("tree")) {
-				result = treeElementTemplate(node);
+				treeElementTemplate(node, templates, templateArtifacts, templateContent);
 			}
 			if (nodeName.equals("iframe")) {
-				result = iframeElementTemplate(node);
+				iframeElementTemplate(node, templateContent);
 			}
 			break;
 		case Node.TEXT_NODE:
 			String textContent = node.getTextContent().trim();
 
 			if (!textContent.equals("")) {
+				String result;
+
 				if (textContent.contains(oxyXpathExpressionStartMarker)) {
 					result = _processOxyXpathExpression(textContent);
 				} else {
-					result = "\"" + textContent.replaceAll("&nbsp;", " ") + "\"";
+					result = "\"" + TextScanner.replace(textContent, "&nbsp;", " ") + "\"";
 				}
 
-				result = _processOxyGetTemplate(result);
+				templateContent.append(_processOxyGetTemplate(result));
 			}
 			break;
 		}
 
-		return result + " ";
+		templateContent.append(' ');
 	}
 
 	private String _processOxyGetTemplate(String textContent) {
@@ -464,14 +680,15 @@ public class Parser {
 
 		if (textContent.contains("oxy:get-template(")) {
 			OxyEditorDescriptor oxyEditorDescriptor = new OxyEditorDescriptor();
-			textContent = textContent.replace("ua:get-template(oxy:get-template(", "").replaceAll("\\)\\)$", "");
+			textContent = TextScanner.removeSuffix(TextScanner.remove(textContent, "ua:get-template(oxy:get-template("),
+					"))");
 			String templateName = _processStringLiteral(textContent.substring(1, textContent.indexOf("\",")));
 			String optionsMap = textContent.substring(textContent.indexOf("\",") + 2).trim();
 
 			optionsMap = optionsMap.substring(optionsMap.indexOf("{") + 1);
 			optionsMap = optionsMap.substring(0, optionsMap.indexOf("}")).trim();
 
-			String[] options = optionsMap.split(",\\s+\"");
+			String[] options = optionsSeparatorPattern.split(optionsMap);
 
 			if (builtinFormControlNames.contains(templateName)) {
 				oxyEditorDescriptor.setType(templateName);
@@ -481,7 +698,7 @@ public class Parser {
 			}
 
 			for (String option : options) {
-				String optionName = option.substring(0, option.indexOf(":=")).replace("\"", "").trim();
+				String optionName = TextScanner.remove(option.substring(0, option.indexOf(":=")), "\"").trim();
 				String optionValue = option.substring(option.indexOf(":=") + 2).trim();
 
 				if (optionValue.startsWith("\"")) {
@@ -501,7 +718,8 @@ public class Parser {
 		return result;
 	}
 
-	private String dialogHTMLElementTemplate(String templateId, Node node, ParsingResult parsingResult) {
+	private void dialogHTMLElementTemplate(String templateId, Node node, TemplateArtifacts templateArtifacts,
+			StringBuilder templateContent) {
 		String result = "";
 
 		Element element = (Element) node;
@@ -514,15 +732,15 @@ public class Parser {
 		type = (type != "") ? type : "modal";
 		String dataSrc = element.getAttribute("data-src");
 
-		result = XML.xmlToString(node, "NO", "YES");
+		result = XML.xmlToString(node, "NO", "YES", transformerFactoryClassName);
 
-		parsingResult.dialogs.put(templateId, new DialogModel(templateId, type, title, style.width, style.height,
+		templateArtifacts.dialogs.put(templateId, new DialogModel(templateId, type, title, style.width, style.height,
 				style.resize, style.margin, dataSrc, "OxygenAddonBuilder", result));
 
-		return result;
+		templateContent.append(result);
 	}
 
-	private String datalistHTMLElementTemplate(Node node) {
+	private void datalistHTMLElementTemplate(Node node, TemplateArtifacts templateArtifacts) {
 		Element element = (Element) node;
 		NodeList nodeChildNodes = node.getChildNodes();
 		String id = element.getAttribute("id");
@@ -534,17 +752,12 @@ public class Parser {
 				.filter(Element.class::isInstance).map(Element.class::cast)
 				.map(el -> el.getAttributes().getNamedItem("value").getNodeValue()).collect(Collectors.joining(","));
 
-		boolean idExists = parsingResult.datalists.stream().map(Datalist::getId).anyMatch(id::equals);
-
-		if (!idExists) {
-			parsingResult.templates.put(id, values);
-			parsingResult.datalists.add(new Datalist(id, labels, values));
-		}
-
-		return "";
+		// the first datalist with an id is kept, when the templates are added
+		templateArtifacts.datalists.add(new Datalist(id, labels, values));
 	}
 
-	private String treeElementTemplate(Node node) {
+	private void treeElementTemplate(Node node, Map<String, String> templates, TemplateArtifacts templateArtifacts,
+			StringBuilder templateContent) {
 		OxyEditorDescriptor oxyEditorDescriptor = new OxyEditorDescriptor();
 		oxyEditorDescriptor.setType("");
 		oxyEditorDescriptor.setRendererClassName("ro.kuberam.oxygen.addonBuilder.templates.java.tree.TreeFormControl");
@@ -568,7 +781,7 @@ public class Parser {
 			String attrValue = attr.getNodeValue();
 
 			if (attrName.equals("data-ua-ref")) {
-				_processReferenceAttribute(oxyEditorDescriptor, attrValue, parsingResult);
+				_processReferenceAttribute(oxyEditorDescriptor, attrValue, templates);
 			}
 
 			_processDataAttribute(attrName, attrValue, oxyEditorDescriptor);
@@ -579,28 +792,31 @@ public class Parser {
 		oxyEditorDescriptor.setRows(height);
 
 		String treeitem = _removeOxyXpathExpressionMarkers(treeitemNode.getTextContent().trim());
-		treeitem = treeitem.replace("ua:context()", "$node");
+		treeitem = TextScanner.replace(treeitem, "ua:context()", "$node");
 
-		String itemtemplateAsString = XML.xmlToString(itemtemplateNode, "yes", "yes");
-		itemtemplateAsString = XML.xmlToString(itemtemplateNode, "no", "yes")
+		String itemtemplateAsString = XML.xmlToString(itemtemplateNode, "yes", "yes", transformerFactoryClassName);
+		itemtemplateAsString = XML.xmlToString(itemtemplateNode, "no", "yes", transformerFactoryClassName)
 				.substring(0, itemtemplateAsString.length() - 16).substring(14).trim();
-		itemtemplateAsString = itemtemplateAsString.replaceAll(">\\s+<", "><");
+		itemtemplateAsString = TextScanner.removeWhitespaceBetweenTags(itemtemplateAsString);
 
-		String treeGeneratorTemplateId = UUID.randomUUID().toString().replaceAll("-", "");
+		String treeGeneratorTemplateId = TextScanner.remove(UUID.randomUUID().toString(), "-");
 		oxyEditorDescriptor.setCustomProperty("treeGeneratorTemplateId", treeGeneratorTemplateId);
 
-		String treeGeneratorTemplate = baseTreeGeneratorTemplate
-				.replace("${root-nodes}", oxyEditorDescriptor.getEditValue())
-				.replace("${root-nodes-path}", "\"" + oxyEditorDescriptor.getEditValue() + "\"")
-				.replace("${treeitem}", treeitem).replace("${item-template}", itemtemplateAsString)
-				.replace("${tree-height}", height + "px");
+		String treeGeneratorTemplate = baseTreeGeneratorTemplate;
+		treeGeneratorTemplate = TextScanner.replace(treeGeneratorTemplate, "${root-nodes}",
+				oxyEditorDescriptor.getEditValue());
+		treeGeneratorTemplate = TextScanner.replace(treeGeneratorTemplate, "${root-nodes-path}",
+				"\"" + oxyEditorDescriptor.getEditValue() + "\"");
+		treeGeneratorTemplate = TextScanner.replace(treeGeneratorTemplate, "${treeitem}", treeitem);
+		treeGeneratorTemplate = TextScanner.replace(treeGeneratorTemplate, "${item-template}", itemtemplateAsString);
+		treeGeneratorTemplate = TextScanner.replace(treeGeneratorTemplate, "${tree-height}", height + "px");
 
-		parsingResult.templates.put(treeGeneratorTemplateId, treeGeneratorTemplate);
+		templateArtifacts.templates.put(treeGeneratorTemplateId, treeGeneratorTemplate);
 
-		return oxyEditorDescriptor.toString();
+		oxyEditorDescriptor.appendTo(templateContent);
 	}
 
-	private String iframeElementTemplate(Node node) {
+	private void iframeElementTemplate(Node node, StringBuilder templateContent) {
 		OxyEditorDescriptor oxyEditorDescriptor = new OxyEditorDescriptor();
 		oxyEditorDescriptor.setType("browser");
 		NamedNodeMap nodeAttrs = node.getAttributes();
@@ -611,8 +827,7 @@ public class Parser {
 			String attrValue = attr.getNodeValue();
 
 			if (attrName.equals("src")) {
-				attrValue = attrValue.replaceAll(oxyXpathExpressionStartMarker, "{")
-						.replaceAll(oxyXpathExpressionEndMarker, "}");
+				attrValue = TextScanner.replaceMarkers(attrValue, "{", "}");
 				oxyEditorDescriptor.setHref(attrValue);
 			}
 
@@ -626,17 +841,16 @@ public class Parser {
 
 		}
 
-		return oxyEditorDescriptor.toString();
+		oxyEditorDescriptor.appendTo(templateContent);
 	}
 
 	private String _processOxyXpathExpression(String textContent) {
-		textContent = "\"" + textContent.replaceAll(oxyXpathExpressionStartMarker, "\" oxy_xpath(\"")
-				.replaceAll(oxyXpathExpressionEndMarker, "\") \"") + "\"";
-		textContent = textContent.replaceAll("\"\"", "").replaceAll(" \" \" ", " ").trim();
+		textContent = "\"" + TextScanner.replaceMarkers(textContent, "\" oxy_xpath(\"", "\") \"") + "\"";
+		textContent = TextScanner.replace(TextScanner.remove(textContent, "\"\""), " \" \" ", " ").trim();
 		return textContent;
 	}
 
-	private String textAreaHTMLElementTemplate(Node node, ParsingResult parsingResult) {
+	private void textAreaHTMLElementTemplate(Node node, Map<String, String> templates, StringBuilder templateContent) {
 		OxyEditorDescriptor oxyEditorDescriptor = new OxyEditorDescriptor();
 		oxyEditorDescriptor.setType("textArea");
 		NamedNodeMap nodeAttrs = node.getAttributes();
@@ -647,7 +861,7 @@ public class Parser {
 			String attrValue = attr.getNodeValue();
 
 			if (attrName.equals("data-ua-ref")) {
-				_processReferenceAttribute(oxyEditorDescriptor, attrValue, parsingResult);
+				_processReferenceAttribute(oxyEditorDescriptor, attrValue, templates);
 			}
 
 			if (attrName.equals("cols")) {
@@ -661,7 +875,7 @@ public class Parser {
 			_processDataAttribute(attrName, attrValue, oxyEditorDescriptor);
 		}
 
-		return oxyEditorDescriptor.toString();
+		oxyEditorDescriptor.appendTo(templateContent);
 	}
 
 	private void _processDataAttribute(String attrName, String attrValue, OxyEditorDescriptor oxyEditorDescriptor) {
@@ -672,7 +886,7 @@ public class Parser {
 		}
 	}
 
-	private String selectHTMLElementTemplate(Node node, ParsingResult parsingResult) {
+	private void selectHTMLElementTemplate(Node node, Map<String, String> templates, StringBuilder templateContent) {
 		OxyEditorDescriptor oxyEditorDescriptor = new OxyEditorDescriptor();
 		NamedNodeMap nodeAttrs = node.getAttributes();
 
@@ -702,7 +916,7 @@ public class Parser {
 
 		if (multipleAttrNode == null) {
 			oxyEditorDescriptor.setType("combo");
-			_processReferenceAttribute(oxyEditorDescriptor, ref, parsingResult);
+			_processReferenceAttribute(oxyEditorDescriptor, ref, templates);
 			oxyEditorDescriptor.setEditable(contenteditable);
 
 		} else {
@@ -711,7 +925,7 @@ public class Parser {
 			case "oxy:popupWithMultipleSelection":
 				oxyEditorDescriptor.setType("popupSelection");
 
-				_processReferenceAttribute(oxyEditorDescriptor, ref, parsingResult);
+				_processReferenceAttribute(oxyEditorDescriptor, ref, templates);
 
 				oxyEditorDescriptor.setSelectionMode("multiple");
 
@@ -747,10 +961,10 @@ public class Parser {
 			}
 		}
 
-		return oxyEditorDescriptor.toString();
+		oxyEditorDescriptor.appendTo(templateContent);
 	}
 
-	private String inputHTMLElementTemplate(Node node, ParsingResult parsingResult2) {
+	private void inputHTMLElementTemplate(Node node, Map<String, String> templates, StringBuilder templateContent) {
 		NamedNodeMap nodeAttrs = node.getAttributes();
 
 		OxyEditorDescriptor oxyEditorDescriptor = new OxyEditorDescriptor();
@@ -758,7 +972,7 @@ public class Parser {
 		String type = Optional.ofNullable(nodeAttrs.getNamedItem("type")).map(Node::getNodeValue).orElse("text");
 		String values = Optional.ofNullable(nodeAttrs.getNamedItem("value")).map(Node::getNodeValue).orElse("");
 		Optional.ofNullable(nodeAttrs.getNamedItem("data-ua-ref")).ifPresent(
-				attr -> _processReferenceAttribute(oxyEditorDescriptor, attr.getNodeValue(), parsingResult2));
+				attr -> _processReferenceAttribute(oxyEditorDescriptor, attr.getNodeValue(), templates));
 		Optional.ofNullable(nodeAttrs.getNamedItem("size"))
 				.ifPresent(attr -> oxyEditorDescriptor.setColumns(attr.getNodeValue()));
 		Optional.ofNullable(nodeAttrs.getNamedItem("list")).ifPresent(attr -> {
@@ -785,10 +999,10 @@ public class Parser {
 			oxyEditorDescriptor.setType(type);
 		}
 
-		return oxyEditorDescriptor.toString();
+		oxyEditorDescriptor.appendTo(templateContent);
 	}
 
-	private String buttonElementTemplate(Node node) {
+	private void buttonElementTemplate(Node node, TemplateArtifacts templateArtifacts, StringBuilder templateContent) {
 		OxyEditorDescriptor oxyEditorDescriptor = new OxyEditorDescriptor();
 		oxyEditorDescriptor.setType("button");
 		NamedNodeMap nodeAttrs = node.getAttributes();
@@ -801,37 +1015,36 @@ public class Parser {
 			String action = "";
 
 			if (attrName.equals("onclick")) {
-				attrValue = _removeOxyXpathExpressionMarkers(attrValue).replaceAll("'\\)", "");
+				attrValue = TextScanner.remove(_removeOxyXpathExpressionMarkers(attrValue), "')");
 
 				if (attrValue.contains("oxy:execute-action-by-name")) {
-					actionID = attrValue.replaceAll("oxy:execute-action-by-name\\('", "");
+					actionID = TextScanner.remove(attrValue, "oxy:execute-action-by-name('");
 					oxyEditorDescriptor.setActionID(actionID);
 				}
 
 				if (attrValue.contains("ua:show-template")) {
-					actionID = "simpleAction" + UUID.randomUUID().toString().replaceAll("-", "");
-					String templateId = attrValue.replaceAll("ua:show-template\\('", "");
+					actionID = "simpleAction" + TextScanner.remove(UUID.randomUUID().toString(), "-");
+					String templateId = TextScanner.remove(attrValue, "ua:show-template('");
 
-					SimpleAction simpleAction = new SimpleAction(actionID, node.getTextContent(), templateId);
-					simpleActions.add(simpleAction);
+					templateArtifacts.simpleActions.add(new String[] { actionID, node.getTextContent(), templateId });
 
 					oxyEditorDescriptor.setActionID(actionID);
 				}
 
 				if (attrValue.contains("oxy:xquery")) {
-					action = "@" + attrValue.replaceAll("oxy:xquery\\('", "");
+					action = "@" + TextScanner.remove(attrValue, "oxy:xquery('");
 					oxyEditorDescriptor.setAction(action);
 				}
 
 				if (attrValue.contains("oxy:xquery-update-action")) {
-					action = "@" + attrValue.replaceAll("oxy:xquery-update-action\\('", "");
+					action = "@" + TextScanner.remove(attrValue, "oxy:xquery-update-action('");
 					oxyEditorDescriptor.setAction(action);
 				}
 
 				if (attrValue.contains("oxy:xquery-update(")) {
 					OxyAction oxyAction = new OxyAction();
 
-					actionID = UUID.randomUUID().toString().replaceAll("-", "");
+					actionID = TextScanner.remove(UUID.randomUUID().toString(), "-");
 					oxyEditorDescriptor.setAction("@" + actionID);
 					oxyAction.setId(actionID);
 
@@ -841,7 +1054,7 @@ public class Parser {
 
 					oxyAction.setArgument("script", attrValue.substring(attrValue.indexOf("'") + 1));
 
-					parsingResult.actions.add(oxyAction.toLessDeclaration());
+					templateArtifacts.actions.add(oxyAction.toLessDeclaration());
 
 				}
 			}
@@ -884,7 +1097,7 @@ public class Parser {
 		}
 		// System.out.println(oxyEditorDescriptor.toString());
 
-		return oxyEditorDescriptor.toString();
+		oxyEditorDescriptor.appendTo(templateContent);
 	}
 
 	private void processInnerHTMLcontent(OxyAction oxyAction, Node node) {
@@ -910,13 +1123,12 @@ public class Parser {
 	}
 
 	private String _removeOxyXpathExpressionMarkers(String oxyXpathExpression) {
-		return oxyXpathExpression.replaceAll(oxyXpathExpressionStartMarker, "").replaceAll(oxyXpathExpressionEndMarker,
-				"");
+		return TextScanner.removeMarkers(oxyXpathExpression);
 	}
 
 	private void _processReferenceAttribute(OxyEditorDescriptor oxyEditorDescriptor, String attrValue,
-			ParsingResult parsingResult) {
-		attrValue = _removeOxyXpathExpressionMarkers(_processXpathExpression(attrValue, parsingResult));
+			Map<String, String> templates) {
+		attrValue = _removeOxyXpathExpressionMarkers(_processXpathExpression(attrValue, templates));
 		if (attrValue.equals("text()")) {
 			oxyEditorDescriptor.setEdit("#text");
 		} else {
@@ -924,12 +1136,12 @@ public class Parser {
 		}
 	}
 
-	private void ua__action(Element functionCallElement) throws XMLStreamException {
-		NodeList argumentElements = functionCallElement.getElementsByTagName("Argument");
+	private void ua__action(SyntaxNode functionCallElement) throws XMLStreamException {
+		List<SyntaxNode> argumentElements = functionCallElement.getElementsByTagName("Argument");
 
-		String functionId = _processStringLiteral(argumentElements.item(0).getTextContent());
-		Element functionParametersArgument = (Element) argumentElements.item(1);
-		Element codeBlockArgument = (Element) argumentElements.item(2);
+		String functionId = _processStringLiteral(argumentElements.get(0).getTextContent());
+		SyntaxNode functionParametersArgument = argumentElements.get(1);
+		SyntaxNode codeBlockArgument = argumentElements.get(2);
 
 		String script = codeBlockArgument.getTextContent();
 
@@ -952,18 +1164,18 @@ public class Parser {
 		}
 	}
 
-	private String createActionDescription(String functionId, Element functionParametersArgument, String operation,
+	private String createActionDescription(String functionId, SyntaxNode functionParametersArgument, String operation,
 			String script) {
 		OxyAction oxyAction = new OxyAction();
 
 		oxyAction.setId(functionId);
 
-		NodeList mapKeyExprElements = functionParametersArgument.getElementsByTagName("MapKeyExpr");
-		NodeList mapValueExprElements = functionParametersArgument.getElementsByTagName("MapValueExpr");
+		List<SyntaxNode> mapKeyExprElements = functionParametersArgument.getElementsByTagName("MapKeyExpr");
+		List<SyntaxNode> mapValueExprElements = functionParametersArgument.getElementsByTagName("MapValueExpr");
 
-		for (int i = 0, il = mapKeyExprElements.getLength(); i < il; i++) {
-			String argumentName = _processStringLiteral(mapKeyExprElements.item(i).getTextContent());
-			String argumentValue = _processStringLiteral(mapValueExprElements.item(i).getTextContent());
+		for (int i = 0, il = mapKeyExprElements.size(); i < il; i++) {
+			String argumentName = _processStringLiteral(mapKeyExprElements.get(i).getTextContent());
+			String argumentValue = _processStringLiteral(mapValueExprElements.get(i).getTextContent());
 
 			if (argumentName.equals("name")) {
 				oxyAction.setName(argumentValue);
@@ -1001,7 +1213,7 @@ public class Parser {
 		return oxyAction.toLessDeclaration();
 	}
 
-	private void _writeAction(String functionId, Element functionParametersArgument, String script)
+	private void _writeAction(String functionId, SyntaxNode functionParametersArgument, String script)
 			throws XMLStreamException {
 		String authorOperationName = "ro.sync.ecss.extensions.commons.operations.XQueryUpdateOperation";
 		_writeFieldElement("id", functionId);
@@ -1023,9 +1235,8 @@ public class Parser {
 		if (script.contains("actions/")) {
 			_writeEntryElement("script", script);
 		} else if (script.contains("ro.kuberam.oxygen.addonBuilder.operations.EditDocumentInNewTabOperation")) {
-			script = script
-					.replaceAll("ro.kuberam.oxygen.addonBuilder.operations.EditDocumentInNewTabOperation\\('", "")
-					.replaceAll("'\\)", "");
+			script = TextScanner.remove(TextScanner.remove(script,
+					"ro.kuberam.oxygen.addonBuilder.operations.EditDocumentInNewTabOperation('"), "')");
 			_writeEntryElement("document_url", script);
 			authorOperationName = "ro.kuberam.oxygen.addonBuilder.operations.EditDocumentInNewTabOperation";
 		} else {
@@ -1041,46 +1252,49 @@ public class Parser {
 		actionsWriter.writeEndElement();
 	}
 
-	private void ua__observer(Element functionCallElement, ParsingResult parsingResult) throws XMLStreamException {
-		NodeList argumentElements = functionCallElement.getElementsByTagName("Argument");
-		String id = _processStringLiteral(argumentElements.item(0).getTextContent());
-		String[] actionHandlers = _processStringLiteral(argumentElements.item(1).getTextContent()).split(" ");
+	private void ua__observer(SyntaxNode functionCallElement, ParsingResult parsingResult) throws XMLStreamException {
+		List<SyntaxNode> argumentElements = functionCallElement.getElementsByTagName("Argument");
+		String id = _processStringLiteral(argumentElements.get(0).getTextContent());
+		String[] actionHandlers = _processStringLiteral(argumentElements.get(1).getTextContent()).split(" ");
 		parsingResult.observers.put(id, actionHandlers);
 	}
 
-	private void ua__connect_observer(Element functionCallElement, ParsingResult parsingResult) {
-		NodeList argumentElements = functionCallElement.getElementsByTagName("Argument");
+	private void ua__connect_observer(SyntaxNode functionCallElement, ParsingResult parsingResult) {
+		List<SyntaxNode> argumentElements = functionCallElement.getElementsByTagName("Argument");
 
-		String observerHandler = _processStringLiteral(argumentElements.item(0).getTextContent());
-		String nodeSelector = _processNodeSelector(argumentElements.item(1).getTextContent());
-		Element optionsArgument = (Element) argumentElements.item(3);
-		NodeList mapKeyExprElements = optionsArgument.getElementsByTagName("MapKeyExpr");
-		NodeList mapValueExprElements = optionsArgument.getElementsByTagName("MapValueExpr");
+		String observerHandler = _processStringLiteral(argumentElements.get(0).getTextContent());
+		String nodeSelectorArgument = argumentElements.get(1).getTextContent();
+		String nodeSelector = _processNodeSelector(nodeSelectorArgument);
+		SyntaxNode optionsArgument = argumentElements.get(3);
+		List<SyntaxNode> mapKeyExprElements = optionsArgument.getElementsByTagName("MapKeyExpr");
+		List<SyntaxNode> mapValueExprElements = optionsArgument.getElementsByTagName("MapValueExpr");
 		Map<String, String> unprocessedOptions = new HashMap<String, String>();
 
-		for (int i = 0, il = mapKeyExprElements.getLength(); i < il; i++) {
-			unprocessedOptions.put(_processStringLiteral(mapKeyExprElements.item(i).getTextContent()),
-					_processStringLiteral(mapValueExprElements.item(i).getTextContent()));
+		for (int i = 0, il = mapKeyExprElements.size(); i < il; i++) {
+			unprocessedOptions.put(_processStringLiteral(mapKeyExprElements.get(i).getTextContent()),
+					_processStringLiteral(mapValueExprElements.get(i).getTextContent()));
 		}
 
 		Map<String, Object> options = new HashMap<String, Object>();
-		if (unprocessedOptions.containsKey("attributes")) {
-			options.put("attributes", unprocessedOptions.get("attributes"));
+		for (String mutationType : new String[] { "attributes", "characterData", "childList" }) {
+			if (unprocessedOptions.containsKey(mutationType)) {
+				options.put(mutationType, unprocessedOptions.get(mutationType));
+			}
 		}
 		if (unprocessedOptions.containsKey("attributeFilter")) {
 			String value = unprocessedOptions.get("attributeFilter");
-			value = value.replaceAll("\\[", "").replaceAll("\\]", "").replaceAll("'", "");
-			List<String> valueAsList = Arrays.asList(value.split("\\s*,\\s*"));
+			value = TextScanner.remove(TextScanner.remove(TextScanner.remove(value, "["), "]"), "'");
+			List<String> valueAsList = Arrays.asList(valuesSeparatorPattern.split(value));
 			options.put("attributeFilter", valueAsList);
 		}
 
 		parsingResult.connectObserverActions.put(nodeSelector,
 				new ObserverConnection(observerHandler, nodeSelector, options));
-		parsingResult.nodeSelectors.put(nodeSelector, "xpath");
+		parsingResult.nodeSelectors.put(nodeSelector,
+				nodeSelectorArgument.contains("ua-dt:xpath-selector") ? "xpath" : "css");
 	}
 
-	private void _processFunctionParameters(Element functionParametersArgument)
-			throws DOMException, XMLStreamException {
+	private void _processFunctionParameters(SyntaxNode functionParametersArgument) throws XMLStreamException {
 		Map<String, String> actionArgumentsMap = new HashMap<String, String>();
 		actionArgumentsMap.put("name", "");
 		actionArgumentsMap.put("description", "");
@@ -1089,12 +1303,12 @@ public class Parser {
 		actionArgumentsMap.put("accessKey", "");
 		actionArgumentsMap.put("accelerator", "");
 
-		NodeList mapKeyExprElements = functionParametersArgument.getElementsByTagName("MapKeyExpr");
-		NodeList mapValueExprElements = functionParametersArgument.getElementsByTagName("MapValueExpr");
+		List<SyntaxNode> mapKeyExprElements = functionParametersArgument.getElementsByTagName("MapKeyExpr");
+		List<SyntaxNode> mapValueExprElements = functionParametersArgument.getElementsByTagName("MapValueExpr");
 
-		for (int i = 0, il = mapKeyExprElements.getLength(); i < il; i++) {
-			actionArgumentsMap.put(_processStringLiteral(mapKeyExprElements.item(i).getTextContent()),
-					_processStringLiteral(mapValueExprElements.item(i).getTextContent()));
+		for (int i = 0, il = mapKeyExprElements.size(); i < il; i++) {
+			actionArgumentsMap.put(_processStringLiteral(mapKeyExprElements.get(i).getTextContent()),
+					_processStringLiteral(mapValueExprElements.get(i).getTextContent()));
 		}
 		for (Map.Entry<String, String> actionArgument : actionArgumentsMap.entrySet()) {
 			_writeFieldElement(actionArgument.getKey(), actionArgument.getValue());
@@ -1131,11 +1345,11 @@ public class Parser {
 		String processedNodeSelector = "";
 
 		if (nodeSelector.contains("ua-dt:xpath-selector")) {
-			processedNodeSelector = _xpath2css(_processStringLiteral(
-					nodeSelector.replaceAll("ua-dt:xpath-selector\\(", "").replaceAll("\\)$", "")));
+			processedNodeSelector = _xpath2css(
+					_processStringLiteral(TextScanner.removeFunctionCall(nodeSelector, "ua-dt:xpath-selector")));
 		} else {
 			processedNodeSelector = _processStringLiteral(
-					nodeSelector.replaceAll("ua-dt:css-selector\\(", "").replaceAll("\\)$", ""));
+					TextScanner.removeFunctionCall(nodeSelector, "ua-dt:css-selector"));
 		}
 
 		return processedNodeSelector;
@@ -1146,7 +1360,7 @@ public class Parser {
 	}
 
 	private String _processStringLiteral(final String functionArgument) {
-		return functionArgument.replaceAll("^['\"]", "").replaceAll("['\"]$", "");
+		return TextScanner.unquote(functionArgument);
 	}
 
 	public static void main(String args[]) throws Exception {
@@ -1175,7 +1389,9 @@ public class Parser {
 		} else {
 			System.out.println("execute with arguments" + args);
 
-			new Parser(new File(args[0]), args[1], new File(args[2]));
+			boolean incremental = args.length > 3 && args[3].equals("incremental");
+
+			new Parser(new File(args[0]), args[1], new File(args[2]), incremental);
 		}
 	}
 
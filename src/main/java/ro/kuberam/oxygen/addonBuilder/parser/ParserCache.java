@@ -0,0 +1,196 @@
+package ro.kuberam.oxygen.addonBuilder.parser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.log4j.Logger;
+
+import ro.kuberam.oxygen.addonBuilder.utils.HashUtilities;
+import ro.kuberam.oxygen.addonBuilder.utils.IOUtilities;
+
+/**
+ * Cache used by the incremental mode of the {@link Parser}. It keeps, by the
+ * hash of their declaration, the artifacts generated for each ua:template,
+ * and the hash of the generated action-array, in order to reuse what did not
+ * change since the previous run.
+ *
+ * The cache is stored in the framework directory, next to the target
+ * directory, and it is discarded when the prolog, the tree template or the
+ * classes generating the artifacts change.
+ *
+ * @author Claudius Teodorescu
+ */
+public class ParserCache implements Serializable {
+
+	/**
+	 *
+	 */
+	private static final long serialVersionUID = 2896624870236613450L;
+
+	/**
+	 * Logger for logging.
+	 */
+	private static final Logger logger = Logger.getLogger(ParserCache.class.getName());
+
+	public static String fileName = ".parser-cache";
+
+	/**
+	 * The packages whose classes generate the artifacts.
+	 */
+	private static String[] generatingPackages = { "ro/kuberam/oxygen/addonBuilder/parser/",
+			"ro/kuberam/oxygen/addonBuilder/oxyFormControlDescriptors/", "ro/kuberam/oxygen/addonBuilder/utils/" };
+
+	private static String codeHash;
+
+	private String contextHash;
+	private Map<String, TemplateArtifacts> templateArtifacts = new HashMap<String, TemplateArtifacts>();
+	private String actionArrayHash = "";
+	private transient ParserCache previousCache;
+
+	private ParserCache(String contextHash) {
+		this.contextHash = contextHash;
+	}
+
+	public static ParserCache load(File directory, String contextHash) {
+		ParserCache cache = new ParserCache(contextHash);
+		cache.previousCache = new ParserCache(contextHash);
+
+		File cacheFile = new File(directory, fileName + ".ser");
+		if (cacheFile.exists()) {
+			try {
+				ParserCache previousCache = (ParserCache) IOUtilities.deserializeObjectFromFile(cacheFile);
+
+				if (previousCache.contextHash.equals(contextHash)) {
+					cache.previousCache = previousCache;
+				}
+			} catch (IOException | ClassNotFoundException | ClassCastException e) {
+				logger.debug("the parser cache cannot be read: " + e.getMessage());
+			}
+		}
+
+		return cache;
+	}
+
+	public synchronized TemplateArtifacts getTemplateArtifacts(String declarationHash) {
+		TemplateArtifacts artifacts = previousCache.templateArtifacts.get(declarationHash);
+
+		if (artifacts != null) {
+			templateArtifacts.put(declarationHash, artifacts);
+		}
+
+		return artifacts;
+	}
+
+	public synchronized void putTemplateArtifacts(String declarationHash, TemplateArtifacts artifacts) {
+		templateArtifacts.put(declarationHash, artifacts);
+	}
+
+	public boolean isActionArrayChanged(String actionArrayHash) {
+		this.actionArrayHash = actionArrayHash;
+
+		return !actionArrayHash.equals(previousCache.actionArrayHash);
+	}
+
+	public void save(File directory) throws IOException {
+		IOUtilities.serializeObjectToFile(directory, this, fileName);
+	}
+
+	/**
+	 * Identifies the build of the parser by the hash of the classes generating
+	 * the artifacts, read from the jar or the directory the parser was loaded
+	 * from, so that the artifacts generated by another build are not reused,
+	 * whichever jar the parser is loaded from. If the classes cannot be read,
+	 * the hash is random, and the cache is not reused.
+	 */
+	public static synchronized String getCodeHash() {
+		if (codeHash == null) {
+			try {
+				File codeSource = new File(Parser.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+				Map<String, byte[]> classes = codeSource.isDirectory() ? _readClasses(codeSource.toPath())
+						: _readClasses(codeSource);
+
+				ByteArrayOutputStream content = new ByteArrayOutputStream();
+				for (Map.Entry<String, byte[]> generatingClass : classes.entrySet()) {
+					content.write(generatingClass.getKey().getBytes(StandardCharsets.UTF_8));
+					content.write(generatingClass.getValue());
+				}
+
+				codeHash = HashUtilities.hash(content.toByteArray());
+			} catch (Exception e) {
+				logger.debug("the classes of the parser cannot be read: " + e.getMessage());
+				codeHash = UUID.randomUUID().toString();
+			}
+		}
+
+		return codeHash;
+	}
+
+	private static Map<String, byte[]> _readClasses(Path directory) throws IOException {
+		Map<String, byte[]> classes = new TreeMap<String, byte[]>();
+
+		for (String generatingPackage : generatingPackages) {
+			Path packageDirectory = directory.resolve(generatingPackage);
+
+			if (Files.isDirectory(packageDirectory)) {
+				try (Stream<Path> files = Files.list(packageDirectory)) {
+					for (Path file : files.filter(Files::isRegularFile).collect(Collectors.toList())) {
+						classes.put(generatingPackage + file.getFileName(), Files.readAllBytes(file));
+					}
+				}
+			}
+		}
+
+		return classes;
+	}
+
+	private static Map<String, byte[]> _readClasses(File jar) throws IOException {
+		Map<String, byte[]> classes = new TreeMap<String, byte[]>();
+
+		try (JarFile jarFile = new JarFile(jar)) {
+			Enumeration<JarEntry> entries = jarFile.entries();
+
+			while (entries.hasMoreElements()) {
+				JarEntry entry = entries.nextElement();
+				String name = entry.getName();
+
+				for (String generatingPackage : generatingPackages) {
+					if (!entry.isDirectory() && name.startsWith(generatingPackage)
+							&& name.indexOf('/', generatingPackage.length()) == -1) {
+						try (InputStream in = jarFile.getInputStream(entry)) {
+							classes.put(name, _readBytes(in));
+						}
+					}
+				}
+			}
+		}
+
+		return classes;
+	}
+
+	private static byte[] _readBytes(InputStream in) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		int length;
+
+		while ((length = in.read(buffer)) != -1) {
+			bytes.write(buffer, 0, length);
+		}
+
+		return bytes.toByteArray();
+	}
+}
@@ -5,13 +5,18 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 import org.w3c.dom.Element;
 
@@ -47,14 +52,15 @@ public class ParsingResult {
 	public void writeToFile(File javaDirectory, File addonDirectory) throws FileNotFoundException, IOException {
 		Path cssResourcesDirectory = Paths.get(addonDirectory.getAbsolutePath(), "resources", "css");
 
-		IOUtilities.serializeObjectToFile(javaDirectory, observers, "observers");
-		IOUtilities.serializeObjectToFile(javaDirectory, connectObserverActions, "connectObserverActions");
-		IOUtilities.serializeObjectToFile(javaDirectory, nodeSelectors, "nodeSelectors");
-		IOUtilities.serializeObjectToFile(javaDirectory, actionsByName, "actionsByName");
-		IOUtilities.serializeObjectToFile(javaDirectory, actionsByClass, "actionsByClass");
-		IOUtilities.serializeObjectToFile(javaDirectory, templates, "templates");
-		IOUtilities.serializeObjectToFile(javaDirectory, dialogs, "dialogs");
-		IOUtilities.serializeObjectToFile(javaDirectory, prolog, "prolog");
+		IOUtilities.writeArtifactFile(javaDirectory, "observers", out -> out.writeStringArrayMap(observers));
+		IOUtilities.writeArtifactFile(javaDirectory, "connectObserverActions",
+				out -> out.writeObserverConnections(connectObserverActions));
+		IOUtilities.writeArtifactFile(javaDirectory, "nodeSelectors", out -> out.writeStringMap(nodeSelectors));
+		IOUtilities.writeArtifactFile(javaDirectory, "actionsByName", out -> out.writeStringList(actionsByName));
+		IOUtilities.writeArtifactFile(javaDirectory, "actionsByClass", out -> out.writeStringListMap(actionsByClass));
+		IOUtilities.writeArtifactFile(javaDirectory, "templates", out -> out.writeIndexedStringMap(templates));
+		IOUtilities.writeArtifactFile(javaDirectory, "dialogs", out -> out.writeDialogs(dialogs));
+		IOUtilities.writeArtifactFile(javaDirectory, "prolog", out -> out.writeString(prolog));
 		writeLines(cssResourcesDirectory.resolve("framework.less"), attachedTemplates);
 
 		generateDatalists(cssResourcesDirectory);
@@ -70,10 +76,10 @@ public class ParsingResult {
 	private void generateActions(Path cssResourcesDirectory) {
 		try {
 			Path actionsDirectory = cssResourcesDirectory.resolve("actions");
-			Utils.deleteDirectoryContent(actionsDirectory);
-			Files.createDirectory(actionsDirectory);
+			Files.createDirectories(actionsDirectory);
 
 			writeLines(actionsDirectory.resolve("actions.less"), actions);
+			deleteStaleFiles(actionsDirectory, Collections.singleton("actions.less"));
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
@@ -82,8 +88,8 @@ public class ParsingResult {
 	private void generateDatalists(Path cssResourcesDirectory) {
 		try {
 			Path datalistsDirectory = cssResourcesDirectory.resolve("datalists");
-			Utils.deleteDirectoryContent(datalistsDirectory);
-			Files.createDirectory(datalistsDirectory);
+			Files.createDirectories(datalistsDirectory);
+			Set<String> datalistFileNames = new HashSet<String>();
 
 			ArrayList<String> datalistImportStatements = new ArrayList<>();
 			datalistImportStatements.add("@charset \"utf-8\";");
@@ -99,19 +105,50 @@ public class ParsingResult {
 				lines.add("@" + datalistId + "-values: \"" + datalist.getValues() + "\";");
 
 				writeLines(datalistsDirectory.resolve(datalistId + ".less"), lines);
+				datalistFileNames.add(datalistId + ".less");
 			}
 
 			writeLines(datalistsDirectory.resolve("datalists.less"), datalistImportStatements);
+			datalistFileNames.add("datalists.less");
+			deleteStaleFiles(datalistsDirectory, datalistFileNames);
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
 	}
 
+	/**
+	 * Writes the lines only if the content of the file changed, so that the
+	 * unchanged resources keep their timestamps.
+	 */
 	private void writeLines(Path path, ArrayList<String> lines) {
+		StringBuilder content = new StringBuilder();
+		for (String line : lines) {
+			content.append(line).append(System.lineSeparator());
+		}
+		byte[] bytes = content.toString().getBytes(utf8);
+
 		try {
-			Files.write(path, lines, utf8, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+			if (Files.exists(path) && Arrays.equals(Files.readAllBytes(path), bytes)) {
+				return;
+			}
+
+			Files.write(path, bytes, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
 	}
+
+	private void deleteStaleFiles(Path directory, Set<String> fileNames) throws IOException {
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+			for (Path file : files) {
+				if (!fileNames.contains(file.getFileName().toString())) {
+					if (Files.isDirectory(file)) {
+						Utils.deleteDirectoryContent(file);
+					} else {
+						Files.delete(file);
+					}
+				}
+			}
+		}
+	}
 }
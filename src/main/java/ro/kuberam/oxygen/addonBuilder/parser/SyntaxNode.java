@@ -0,0 +1,170 @@
+package ro.kuberam.oxygen.addonBuilder.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A node of the syntax tree built by {@link SyntaxTreeBuilder}. Nonterminals
+ * and terminals are element-like nodes, while the text is kept as offsets into
+ * the parsed input, until it is replaced by {@link #setTextContent(String)}.
+ * The elements are indexed by name and position, so that looking up the
+ * descendants with a given name costs in the number of matches, not in the
+ * size of the subtree.
+ *
+ * @author Claudius Teodorescu
+ */
+public class SyntaxNode {
+
+	private final String name;
+	private SyntaxNode parent;
+	private final ArrayList<SyntaxNode> children;
+	private final CharSequence input;
+	private final int begin;
+	private int end;
+	private String text;
+	private final SyntaxTreeIndex index;
+	private final int position;
+	private int lastDescendantPosition;
+
+	static SyntaxNode createDocument() {
+		SyntaxNode document = new SyntaxNode("#document", null, new SyntaxTreeIndex());
+		document.lastDescendantPosition = Integer.MAX_VALUE;
+
+		return document;
+	}
+
+	private SyntaxNode(String name, SyntaxNode parent, SyntaxTreeIndex index) {
+		this.name = name;
+		this.parent = parent;
+		this.children = new ArrayList<SyntaxNode>(2);
+		this.input = null;
+		this.begin = 0;
+		this.end = 0;
+		this.index = index;
+		this.position = index.register(this);
+	}
+
+	private SyntaxNode(SyntaxNode parent, CharSequence input, int begin, int end, String text) {
+		this.name = null;
+		this.parent = parent;
+		this.children = null;
+		this.input = input;
+		this.begin = begin;
+		this.end = end;
+		this.text = text;
+		this.index = null;
+		this.position = -1;
+	}
+
+	public String getNodeName() {
+		return name;
+	}
+
+	public boolean isText() {
+		return name == null;
+	}
+
+	public SyntaxNode getParentNode() {
+		return parent;
+	}
+
+	public SyntaxNode getFirstChild() {
+		return (children == null || children.isEmpty()) ? null : children.get(0);
+	}
+
+	public List<SyntaxNode> getChildNodes() {
+		return children;
+	}
+
+	/**
+	 * A node is attached as long as its ancestors were not discarded by a
+	 * {@link #setTextContent(String)} call.
+	 */
+	public boolean isAttached() {
+		if (isText()) {
+			return parent != null && parent.isAttached();
+		}
+
+		return !index.isReplaced(position);
+	}
+
+	int getPosition() {
+		return position;
+	}
+
+	public String getTextContent() {
+		if (isText()) {
+			return (text != null) ? text : input.subSequence(begin, end).toString();
+		}
+
+		StringBuilder result = new StringBuilder();
+		appendTextContent(result);
+
+		return result.toString();
+	}
+
+	public void setTextContent(String textContent) {
+		for (SyntaxNode child : children) {
+			child.parent = null;
+		}
+		children.clear();
+		children.add(new SyntaxNode(this, null, 0, 0, textContent));
+		index.replaceDescendants(position, lastDescendantPosition);
+	}
+
+	/**
+	 * Returns the descendant elements with the given name, in document order.
+	 */
+	public List<SyntaxNode> getElementsByTagName(String tagName) {
+		return index.getElements(tagName, position, lastDescendantPosition);
+	}
+
+	private void appendTextContent(StringBuilder result) {
+		for (SyntaxNode child : children) {
+			if (child.isText()) {
+				if (child.text != null) {
+					result.append(child.text);
+				} else {
+					result.append(child.input, child.begin, child.end);
+				}
+			} else {
+				child.appendTextContent(result);
+			}
+		}
+	}
+
+	SyntaxNode appendElement(String elementName) {
+		SyntaxNode element = new SyntaxNode(elementName, this, index);
+		children.add(element);
+
+		return element;
+	}
+
+	/**
+	 * Called after the last descendant of this element was appended.
+	 */
+	void close() {
+		lastDescendantPosition = index.getLastPosition();
+	}
+
+	void appendText(CharSequence source, int textBegin, int textEnd) {
+		if (textBegin >= textEnd) {
+			return;
+		}
+
+		int size = children.size();
+		if (size > 0) {
+			SyntaxNode lastChild = children.get(size - 1);
+			if (lastChild.isText() && lastChild.text == null && lastChild.end == textBegin) {
+				lastChild.end = textEnd;
+				return;
+			}
+		}
+
+		children.add(new SyntaxNode(this, source, textBegin, textEnd, null));
+	}
+
+	public String toString() {
+		return (isText()) ? getTextContent() : "<" + name + ">";
+	}
+}
@@ -0,0 +1,70 @@
+package ro.kuberam.oxygen.addonBuilder.parser;
+
+import ro.kuberam.oxygen.addonBuilder.parser.XQuery30.EventHandler;
+
+/**
+ * Builds a {@link SyntaxNode} tree directly from the events of the XQuery
+ * parser, with the same shape as the XML produced by
+ * {@link XQuery30.XmlSerializer}, but without serializing and parsing it back.
+ * The name index of the tree is filled in the same pass.
+ *
+ * @author Claudius Teodorescu
+ */
+public class SyntaxTreeBuilder implements EventHandler {
+
+	private CharSequence input;
+	private SyntaxNode document;
+	private SyntaxNode current;
+
+	public SyntaxTreeBuilder() {
+		reset(null);
+	}
+
+	public void reset(CharSequence string) {
+		input = string;
+		document = SyntaxNode.createDocument();
+		current = document;
+	}
+
+	public void startNonterminal(String name, int begin) {
+		current = current.appendElement(name);
+	}
+
+	public void endNonterminal(String name, int end) {
+		current.close();
+		current = current.getParentNode();
+	}
+
+	public void terminal(String name, int begin, int end) {
+		if (name.charAt(0) == '\'') {
+			name = "TOKEN";
+		}
+		SyntaxNode terminal = current.appendElement(name);
+		terminal.appendText(input, begin, end);
+		terminal.close();
+	}
+
+	public void whitespace(int begin, int end) {
+		current.appendText(input, begin, end);
+	}
+
+	public SyntaxNode getDocumentElement() {
+		return document.getFirstChild();
+	}
+
+	public static SyntaxNode parse(String xquery) {
+		SyntaxTreeBuilder builder = new SyntaxTreeBuilder();
+		XQuery30 xqueryParser = XQuery30.getInstance(xquery, builder);
+
+		try {
+			xqueryParser.parse_XQuery();
+		} catch (XQuery30.ParseException pe) {
+			throw new RuntimeException(
+					"ParseException while processing " + xquery + ":\n" + xqueryParser.getErrorMessage(pe));
+		} finally {
+			xqueryParser.release();
+		}
+
+		return builder.getDocumentElement();
+	}
+}
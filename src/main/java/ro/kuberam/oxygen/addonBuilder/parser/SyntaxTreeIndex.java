@@ -0,0 +1,105 @@
+package ro.kuberam.oxygen.addonBuilder.parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Index of a syntax tree, built in a single pass while parsing. Every element
+ * gets its position in document order, and the elements are grouped by name,
+ * so that the descendants with a given name are a contiguous range of the
+ * group.
+ *
+ * The index is synchronized, as the subtrees of the templates are processed
+ * in parallel.
+ *
+ * @author Claudius Teodorescu
+ */
+class SyntaxTreeIndex {
+
+	private Map<String, ArrayList<SyntaxNode>> elementsByName = new HashMap<String, ArrayList<SyntaxNode>>();
+	private TreeMap<Integer, Integer> replacedRanges = new TreeMap<Integer, Integer>();
+	private int size = 0;
+
+	synchronized int register(SyntaxNode element) {
+		ArrayList<SyntaxNode> elements = elementsByName.get(element.getNodeName());
+		if (elements == null) {
+			elements = new ArrayList<SyntaxNode>();
+			elementsByName.put(element.getNodeName(), elements);
+		}
+		elements.add(element);
+
+		return size++;
+	}
+
+	synchronized int getLastPosition() {
+		return size - 1;
+	}
+
+	synchronized List<SyntaxNode> getElements(String name, int fromPosition, int toPosition) {
+		ArrayList<SyntaxNode> elements = elementsByName.get(name);
+		if (elements == null) {
+			return Collections.emptyList();
+		}
+
+		List<SyntaxNode> result = new ArrayList<SyntaxNode>();
+		for (int i = firstIndexAfter(elements, fromPosition), il = elements.size(); i < il; i++) {
+			SyntaxNode element = elements.get(i);
+			int position = element.getPosition();
+
+			if (position > toPosition) {
+				break;
+			}
+
+			Map.Entry<Integer, Integer> replacedRange = replacedRanges.floorEntry(position - 1);
+			if (replacedRange != null && replacedRange.getValue() >= position) {
+				// skip the whole replaced subtree
+				i = firstIndexAfter(elements, replacedRange.getValue()) - 1;
+				continue;
+			}
+
+			result.add(element);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Records that the descendants of the element at the given positions were
+	 * replaced. The ranges are kept disjoint, as a replaced range contains all
+	 * the former ones that start inside it.
+	 */
+	synchronized void replaceDescendants(int position, int lastDescendantPosition) {
+		if (position >= lastDescendantPosition || isReplaced(position)) {
+			return;
+		}
+
+		replacedRanges.subMap(position, true, lastDescendantPosition, true).clear();
+		replacedRanges.put(position, lastDescendantPosition);
+	}
+
+	synchronized boolean isReplaced(int position) {
+		Map.Entry<Integer, Integer> replacedRange = replacedRanges.floorEntry(position - 1);
+
+		return replacedRange != null && replacedRange.getValue() >= position;
+	}
+
+	private static int firstIndexAfter(ArrayList<SyntaxNode> elements, int position) {
+		int low = 0;
+		int high = elements.size();
+
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (elements.get(middle).getPosition() <= position) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+
+		return low;
+	}
+}
@@ -0,0 +1,28 @@
+package ro.kuberam.oxygen.addonBuilder.parser;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import ro.kuberam.oxygen.addonBuilder.javafx.DialogModel;
+
+/**
+ * What a ua:template declaration adds to the {@link ParsingResult}, recorded
+ * so that it can be reused when the declaration did not change.
+ *
+ * @author Claudius Teodorescu
+ */
+public class TemplateArtifacts implements Serializable {
+
+	/**
+	 *
+	 */
+	private static final long serialVersionUID = -3105870254496305712L;
+	public Map<String, String> templates = new LinkedHashMap<String, String>();
+	public Map<String, DialogModel> dialogs = new LinkedHashMap<String, DialogModel>();
+	public ArrayList<Datalist> datalists = new ArrayList<Datalist>();
+	public ArrayList<String> actions = new ArrayList<String>();
+	public ArrayList<String[]> simpleActions = new ArrayList<String[]>();
+
+}
@@ -0,0 +1,216 @@
+package ro.kuberam.oxygen.addonBuilder.parser;
+
+/**
+ * Rewrites the strings of the parser in one linear pass, without compiling
+ * regular expressions: the oxy_xpath_start / oxy_xpath_end markers, the quoted
+ * literals, and the function call prefixes.
+ *
+ * The methods have the same results as the regular expressions they replace,
+ * which are given in their comments.
+ *
+ * @author Claudius Teodorescu
+ */
+public final class TextScanner {
+
+	public static final String oxyXpathExpressionStartMarker = "oxy_xpath_start";
+	public static final String oxyXpathExpressionEndMarker = "oxy_xpath_end";
+
+	private TextScanner() {
+	}
+
+	/**
+	 * Replaces all the occurrences of the target, as
+	 * <code>text.replace(target, replacement)</code>.
+	 */
+	public static String replace(String text, String target, String replacement) {
+		int index = text.indexOf(target);
+		if (index == -1) {
+			return text;
+		}
+
+		StringBuilder result = new StringBuilder(text.length());
+		int start = 0;
+		int targetLength = target.length();
+
+		do {
+			result.append(text, start, index).append(replacement);
+			start = index + targetLength;
+			index = text.indexOf(target, start);
+		} while (index != -1);
+
+		return result.append(text, start, text.length()).toString();
+	}
+
+	/**
+	 * Removes all the occurrences of the target.
+	 */
+	public static String remove(String text, String target) {
+		return replace(text, target, "");
+	}
+
+	/**
+	 * Replaces the start and end markers of the XPath expressions.
+	 */
+	public static String replaceMarkers(String text, String startReplacement, String endReplacement) {
+		int index = text.indexOf("oxy_xpath_");
+		if (index == -1) {
+			return text;
+		}
+
+		StringBuilder result = new StringBuilder(text.length());
+		int start = 0;
+
+		do {
+			if (text.startsWith(oxyXpathExpressionStartMarker, index)) {
+				result.append(text, start, index).append(startReplacement);
+				start = index + oxyXpathExpressionStartMarker.length();
+			} else if (text.startsWith(oxyXpathExpressionEndMarker, index)) {
+				result.append(text, start, index).append(endReplacement);
+				start = index + oxyXpathExpressionEndMarker.length();
+			} else {
+				result.append(text, start, index + 1);
+				start = index + 1;
+			}
+			index = text.indexOf("oxy_xpath_", start);
+		} while (index != -1);
+
+		return result.append(text, start, text.length()).toString();
+	}
+
+	/**
+	 * Removes the start and end markers of the XPath expressions.
+	 */
+	public static String removeMarkers(String text) {
+		return replaceMarkers(text, "", "");
+	}
+
+	/**
+	 * Removes the quotes of a string literal, as
+	 * <code>replaceAll("^['\"]", "").replaceAll("['\"]$", "")</code>.
+	 */
+	public static String unquote(String text) {
+		if (text.length() > 0 && isQuote(text.charAt(0))) {
+			text = text.substring(1);
+		}
+
+		int end = endOfContent(text);
+		if (end > 0 && isQuote(text.charAt(end - 1))) {
+			text = text.substring(0, end - 1) + text.substring(end);
+		}
+
+		return text;
+	}
+
+	/**
+	 * Removes the suffix at the end of the text, as
+	 * <code>replaceAll(suffix + "$", "")</code>.
+	 */
+	public static String removeSuffix(String text, String suffix) {
+		int end = endOfContent(text);
+		if (end >= suffix.length() && text.startsWith(suffix, end - suffix.length())) {
+			return text.substring(0, end - suffix.length()) + text.substring(end);
+		}
+
+		return text;
+	}
+
+	/**
+	 * Removes the calls of a function, but not their arguments, as
+	 * <code>replaceAll(functionName + "\\(", "").replaceAll("\\)$", "")</code>.
+	 */
+	public static String removeFunctionCall(String text, String functionName) {
+		return removeSuffix(remove(text, functionName + "("), ")");
+	}
+
+	/**
+	 * Removes the curly braces of an enclosed expression, as
+	 * <code>replaceAll("^\\s*\\{\\s*", "").replaceAll("\\s*\\}\\s*$", "")</code>.
+	 */
+	public static String removeCurlyBraces(String text) {
+		int length = text.length();
+		int start = 0;
+
+		while (start < length && isWhitespace(text.charAt(start))) {
+			start++;
+		}
+		if (start < length && text.charAt(start) == '{') {
+			start++;
+			while (start < length && isWhitespace(text.charAt(start))) {
+				start++;
+			}
+			text = text.substring(start);
+			length = text.length();
+		}
+
+		int end = length;
+		while (end > 0 && isWhitespace(text.charAt(end - 1))) {
+			end--;
+		}
+		if (end > 0 && text.charAt(end - 1) == '}') {
+			end--;
+			while (end > 0 && isWhitespace(text.charAt(end - 1))) {
+				end--;
+			}
+			text = text.substring(0, end);
+		}
+
+		return text;
+	}
+
+	/**
+	 * Removes the whitespace between tags, as
+	 * <code>replaceAll(">\\s+<", "><")</code>.
+	 */
+	public static String removeWhitespaceBetweenTags(String text) {
+		int length = text.length();
+		StringBuilder result = null;
+		int start = 0;
+
+		for (int i = text.indexOf('>'); i != -1 && i < length; i = text.indexOf('>', i + 1)) {
+			int j = i + 1;
+			while (j < length && isWhitespace(text.charAt(j))) {
+				j++;
+			}
+
+			if (j > i + 1 && j < length && text.charAt(j) == '<') {
+				if (result == null) {
+					result = new StringBuilder(length);
+				}
+				result.append(text, start, i + 1);
+				start = j;
+				i = j - 1;
+			}
+		}
+
+		return (result == null) ? text : result.append(text, start, length).toString();
+	}
+
+	private static boolean isQuote(char c) {
+		return c == '\'' || c == '"';
+	}
+
+	private static boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+	}
+
+	/**
+	 * The end of the text, before a final line terminator, where
+	 * <code>$</code> matches too.
+	 */
+	private static int endOfContent(String text) {
+		int length = text.length();
+
+		if (length > 0) {
+			char last = text.charAt(length - 1);
+
+			if (last == '\n' && length > 1 && text.charAt(length - 2) == '\r') {
+				return length - 2;
+			}
+			if (last == '\n' || last == '\r' || last == '\u0085' || last == '\u2028' || last == '\u2029') {
+				return length - 1;
+			}
+		}
+
+		return length;
+	}
+}
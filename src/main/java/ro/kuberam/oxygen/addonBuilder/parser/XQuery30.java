@@ -166,10 +166,42 @@ public class XQuery30 {
 		}
 	}
 
+	private static final ThreadLocal<XQuery30> instances = new ThreadLocal<XQuery30>();
+
 	public XQuery30(CharSequence string, EventHandler t) {
 		initialize(string, t);
 	}
 
+	/**
+	 * Returns the parser of the current thread, reset for the input and the
+	 * event handler, so that repeated parses do not allocate new parsers. The
+	 * parser should be released after use.
+	 */
+	public static XQuery30 getInstance(CharSequence string, EventHandler eh) {
+		XQuery30 parser = instances.get();
+		if (parser == null) {
+			parser = new XQuery30(string, eh);
+			instances.set(parser);
+		} else {
+			parser.reset(string, eh);
+		}
+		return parser;
+	}
+
+	public void reset(CharSequence string, EventHandler eh) {
+		initialize(string, eh);
+	}
+
+	/**
+	 * Drops the references to the input and the event handler, which are kept
+	 * by the parser of the thread until its next use.
+	 */
+	public void release() {
+		eventHandler = null;
+		input = null;
+		size = 0;
+	}
+
 	public void initialize(CharSequence string, EventHandler eh) {
 		eventHandler = eh;
 		input = string;
@@ -222,9 +254,14 @@ public class XQuery30 {
 	public String getErrorMessage(ParseException e) {
 		String[] tokenSet = getExpectedTokenSet(e);
 		String found = getOffendingToken(e);
-		String prefix = input.subSequence(0, e.getBegin()).toString();
-		int line = prefix.replaceAll("[^\n]", "").length() + 1;
-		int column = prefix.length() - prefix.lastIndexOf("\n");
+		int line = 1;
+		int column = e.getBegin() + 1;
+		for (int i = 0; i < e.getBegin(); ++i) {
+			if (input.charAt(i) == '\n') {
+				++line;
+				column = e.getBegin() - i;
+			}
+		}
 		int size = e.getEnd() - e.getBegin();
 		return e.getMessage()
 				+ (found == null ? "" : ", found " + found)
@@ -10508,9 +10545,28 @@ public class XQuery30 {
 		return (result & 255) - 1;
 	}
 
+	private static final java.util.concurrent.atomic.AtomicReferenceArray<String[]> tokenSets = new java.util.concurrent.atomic.AtomicReferenceArray<String[]>(
+			2048);
+
+	/**
+	 * The token sets are built on first use, and shared.
+	 */
 	private static String[] getTokenSet(int tokenSetId) {
-		java.util.ArrayList<String> expected = new java.util.ArrayList<String>();
 		int s = tokenSetId < 0 ? -tokenSetId : INITIAL[tokenSetId] & 2047;
+		if (s >= tokenSets.length()) {
+			return buildTokenSet(s);
+		}
+
+		String[] tokenSet = tokenSets.get(s);
+		if (tokenSet == null) {
+			tokenSet = buildTokenSet(s);
+			tokenSets.set(s, tokenSet);
+		}
+		return tokenSet.clone();
+	}
+
+	private static String[] buildTokenSet(int s) {
+		java.util.ArrayList<String> expected = new java.util.ArrayList<String>();
 		for (int i = 0; i < 212; i += 32) {
 			int j = i;
 			int i0 = (i >> 5) * 2041 + s - 1;
@@ -1,52 +1,81 @@
 package ro.kuberam.oxygen.addonBuilder.templates.java.input;
 
-import java.awt.EventQueue;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
-import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.swing.ComboBoxModel;
 import javax.swing.DefaultComboBoxModel;
 import javax.swing.JComboBox;
 import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+import ro.kuberam.oxygen.addonBuilder.templates.java.input.SuggestionIndex.Suggestions;
 
 public class ComboboxKeyHandler extends KeyAdapter {
+	/**
+	 * The maximum number of suggestions shown.
+	 */
+	private static final int maxSuggestions = 1000;
+
+	/**
+	 * The time waited after a keystroke, in milliseconds, before the
+	 * suggestions are computed, so that they are computed only once the user
+	 * pauses typing.
+	 */
+	private static final int suggestionsDelay = 100;
+
+	/**
+	 * Computes the suggestions of all the inputs, in background.
+	 */
+	private static final ExecutorService suggestionsExecutor = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "datalist-suggestions");
+		thread.setDaemon(true);
+
+		return thread;
+	});
+
 	private final JComboBox<String> comboBox;
 	private boolean shouldHide;
-	private String[] datalistValues;
+	private SharedDatalist datalist;
+	private Suggestions suggestions;
 	public List<String> values = null;	
 
-	public ComboboxKeyHandler(JComboBox<String> comboBox, String[] datalistValues) {
+	private final Timer suggestionsTimer;
+	private JTextField textField;
+	private Future<?> suggestionsRequest;
+
+	/**
+	 * Incremented at each keystroke, so that only the suggestions for the
+	 * last text are shown.
+	 */
+	private int suggestionsRequestId;
+
+	public ComboboxKeyHandler(JComboBox<String> comboBox, SharedDatalist datalist) {
 		super();
 		this.comboBox = comboBox;
-		values = Arrays.asList(datalistValues);
+		setDatalist(datalist);
+
+		suggestionsTimer = new Timer(suggestionsDelay, event -> _requestSuggestions());
+		suggestionsTimer.setRepeats(false);
+	}
+
+	public void setDatalist(SharedDatalist datalist) {
+		this.datalist = datalist;
+		values = datalist.getValueList();
+		suggestions = null;
+		suggestionsRequestId++;
 	}
 
 	@Override
 	public void keyTyped(final KeyEvent event) {
-		EventQueue.invokeLater(new Runnable() {
-			@Override
-			public void run() {
-				String text = ((JTextField) event.getComponent()).getText();
-				ComboBoxModel<String> model;
-
-				if (text.isEmpty()) {
-					String[] array = values.toArray(new String[values.size()]);
-					model = new DefaultComboBoxModel<String>(array);
-					setSuggestionModel(comboBox, model, "");
-					comboBox.hidePopup();
-				} else {
-					model = getSuggestedModel(values, text);
-					if (model.getSize() == 0 || shouldHide) {
-						comboBox.hidePopup();
-					} else {
-						setSuggestionModel(comboBox, model, text);
-						comboBox.showPopup();
-					}
-				}
-			}
-		});
+		textField = (JTextField) event.getComponent();
+		_cancelSuggestionsRequest();
+		suggestionsTimer.restart();
 	}
 
 	@Override
@@ -75,22 +104,64 @@ public class ComboboxKeyHandler extends KeyAdapter {
 		}
 	}
 
-	private static void setSuggestionModel(JComboBox<String> comboBox, ComboBoxModel<String> model,
-			String str) {
-		comboBox.setModel(model);
-		comboBox.setSelectedIndex(-1);
-		((JTextField) comboBox.getEditor().getEditorComponent()).setText(str);
+	/**
+	 * Computes in background the suggestions for the text of the input, once
+	 * the user paused typing.
+	 */
+	private void _requestSuggestions() {
+		String text = textField.getText();
+
+		_cancelSuggestionsRequest();
+
+		if (text.isEmpty()) {
+			suggestions = null;
+			setSuggestionModel(comboBox, new SuggestionListModel(datalist.getValues(), null, Integer.MAX_VALUE), "");
+			comboBox.hidePopup();
+
+			return;
+		}
+
+		int requestId = suggestionsRequestId;
+		SharedDatalist datalist = this.datalist;
+		Suggestions previousSuggestions = suggestions;
+
+		suggestionsRequest = suggestionsExecutor.submit(() -> {
+			Suggestions newSuggestions = datalist.getSuggestionIndex().search(text, previousSuggestions);
+
+			SwingUtilities.invokeLater(() -> _showSuggestions(requestId, text, newSuggestions));
+		});
 	}
 
-	private static ComboBoxModel<String> getSuggestedModel(List<String> list, String text) {
-		DefaultComboBoxModel<String> model = new DefaultComboBoxModel<>();
+	private void _showSuggestions(int requestId, String text, Suggestions newSuggestions) {
+		if (requestId != suggestionsRequestId) {
+			return;
+		}
 
-		for (String item : list) {
-			if (item.toLowerCase().contains(text.toLowerCase())) {
-				model.addElement(item);
-			}
+		suggestions = newSuggestions;
+		ComboBoxModel<String> model = new SuggestionListModel(datalist.getValues(), suggestions.getMatches(),
+				maxSuggestions);
+
+		if (model.getSize() == 0 || shouldHide) {
+			comboBox.hidePopup();
+		} else {
+			setSuggestionModel(comboBox, model, text);
+			comboBox.showPopup();
 		}
+	}
 
-		return model;
+	private void _cancelSuggestionsRequest() {
+		suggestionsRequestId++;
+
+		if (suggestionsRequest != null) {
+			suggestionsRequest.cancel(false);
+			suggestionsRequest = null;
+		}
+	}
+
+	private static void setSuggestionModel(JComboBox<String> comboBox, ComboBoxModel<String> model,
+			String str) {
+		comboBox.setModel(model);
+		comboBox.setSelectedIndex(-1);
+		((JTextField) comboBox.getEditor().getEditorComponent()).setText(str);
 	}
 }
@@ -0,0 +1,32 @@
+package ro.kuberam.oxygen.addonBuilder.templates.java.input;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The datalists of the framework, shared by the inputs of all the editors, so
+ * that the values of a datalist are split and indexed only once.
+ *
+ * The inputs receive the values of the datalist, joined with commas by the
+ * parser, so that the datalists are registered by their values, and the
+ * datalists with the same values are the same.
+ *
+ * The datalists are never evicted, so each distinct list of values stays on
+ * the heap as long as the class loader of the plugin. Their number is bounded
+ * by the datalists declared by the framework, as the inputs receive only the
+ * values generated by the parser.
+ *
+ * @author Claudius Teodorescu
+ */
+public class DatalistRegistry {
+
+	private static final Map<String, SharedDatalist> datalistsByValues = new ConcurrentHashMap<String, SharedDatalist>();
+
+	/**
+	 * @param values
+	 *            the values of the datalist, joined with commas
+	 */
+	public static SharedDatalist get(String values) {
+		return datalistsByValues.computeIfAbsent(values, key -> new SharedDatalist(key.split(",")));
+	}
+}
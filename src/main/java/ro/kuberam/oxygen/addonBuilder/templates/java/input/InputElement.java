@@ -4,7 +4,6 @@ import java.awt.Dimension;
 import java.util.ArrayList;
 import java.util.List;
 
-import javax.swing.DefaultComboBoxModel;
 import javax.swing.JComboBox;
 import javax.swing.JPanel;
 import javax.swing.JTextField;
@@ -18,27 +17,42 @@ public class InputElement extends JPanel {
 	public JComboBox<String> comboBox;
 	public JTextField editor;
 	public List<String> values = new ArrayList<>();
+	private ComboboxKeyHandler comboboxKeyHandler;
+	private SuggestionListModel datalistModel;
 
 	// the current constructor is for 'input' with @list
 	public InputElement() {
 		comboBox = new JComboBox<String>();
+		comboBox.setEditable(true);
 		add(comboBox);
+
+		// the listeners are added only once, as the element is initialized
+		// again for each datalist
+		editor = (JTextField) comboBox.getEditor().getEditorComponent();
+		comboboxKeyHandler = new ComboboxKeyHandler(comboBox, SharedDatalist.empty);
+		editor.addKeyListener(comboboxKeyHandler);
+		editor.addFocusListener(new CursorAtStartFocusListener());
 	}
 
 	public void initialize(final String[] datalistValues, int width) {
-		comboBox.setModel(new DefaultComboBoxModel<String>(datalistValues));
+		initialize(new SharedDatalist(datalistValues), width);
+	}
+
+	/**
+	 * The model reads the values of the datalist, which are shared by all the
+	 * inputs, without copying them.
+	 */
+	public void initialize(SharedDatalist datalist, int width) {
+		datalistModel = new SuggestionListModel(datalist.getValues(), null, Integer.MAX_VALUE);
+		comboBox.setModel(datalistModel);
 		comboBox.setSelectedIndex(-1);
-		comboBox.setEditable(true);
 		comboBox.setPreferredSize(new Dimension(width, comboBox.getPreferredSize().height));
 //		comboBox.putClientProperty("JComboBox.isTableCellEditor", Boolean.TRUE);
 //		comboBox.setFocusTraversalKeysEnabled(true);
 		
-		editor = (JTextField) comboBox.getEditor().getEditorComponent();
 		editor.setText("");
-		ComboboxKeyHandler comboboxKeyHandler = new ComboboxKeyHandler(comboBox, datalistValues);
+		comboboxKeyHandler.setDatalist(datalist);
 		values = comboboxKeyHandler.values;
-		editor.addKeyListener(comboboxKeyHandler);
-		editor.addFocusListener(new CursorAtStartFocusListener());
 		// field.addFocusListener(new FocusListener() {
 		// public void focusGained(FocusEvent arg0) {
 		// }
@@ -58,6 +72,16 @@ public class InputElement extends JPanel {
 		// });
 	}
 
+	/**
+	 * Shows again all the values of the datalist, after they were narrowed to
+	 * the suggestions.
+	 */
+	public void restoreDatalist() {
+		if (comboBox.getModel() != datalistModel) {
+			comboBox.setModel(datalistModel);
+		}
+	}
+
 	public String getSelectedItem() {
 		return String.valueOf(comboBox.getSelectedItem());
 	}
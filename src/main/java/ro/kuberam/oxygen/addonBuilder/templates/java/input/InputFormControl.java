@@ -3,11 +3,15 @@ package ro.kuberam.oxygen.addonBuilder.templates.java.input;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.swing.JComboBox;
 import javax.swing.JTextField;
 
+import ro.kuberam.oxygen.addonBuilder.instrumentation.LatencyRecorder;
+import ro.kuberam.oxygen.addonBuilder.instrumentation.LatencyRecorders;
 import ro.sync.ecss.extensions.api.editor.AuthorInplaceContext;
 import ro.sync.ecss.extensions.api.editor.EditingEvent;
 import ro.sync.ecss.extensions.api.editor.InplaceEditingListener;
@@ -24,6 +28,28 @@ import ro.sync.exml.view.graphics.Rectangle;
  */
 public class InputFormControl extends InplaceEditorRendererAdapter {
 
+	private static final LatencyRecorder rendererComponentLatency = LatencyRecorders
+			.get("InputFormControl.getRendererComponent");
+	private static final LatencyRecorder renderingInfoLatency = LatencyRecorders.get("InputFormControl.getRenderingInfo");
+
+	/**
+	 * The number of the configured components kept.
+	 */
+	private static final int componentsMaxSize = 16;
+
+	/**
+	 * The components configured for each set of arguments, so that the
+	 * datalist is parsed and the component is configured only once for them.
+	 */
+	private final Map<String, InputElement> components = new LinkedHashMap<String, InputElement>(16, 0.75f, true) {
+		private static final long serialVersionUID = 5163727391468839210L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, InputElement> eldest) {
+			return size() > componentsMaxSize;
+		}
+	};
+
 	/**
 	 * Select element.
 	 */
@@ -39,8 +65,13 @@ public class InputFormControl extends InplaceEditorRendererAdapter {
 	 * Constructor.
 	 */
 	public InputFormControl() {
-		componentPanel = new InputElement();
+		componentPanel = _createComponent();
 		comboBox = componentPanel.comboBox;
+	}
+
+	private InputElement _createComponent() {
+		InputElement componentPanel = new InputElement();
+		final JComboBox<String> comboBox = componentPanel.comboBox;
 		final JTextField editorComponent = (JTextField) comboBox.getEditor().getEditorComponent();
 
 		editorComponent.addActionListener(new ActionListener() {
@@ -73,6 +104,8 @@ public class InputFormControl extends InplaceEditorRendererAdapter {
 		//
 		// }
 		// });
+
+		return componentPanel;
 	}
 
 	/**
@@ -90,7 +123,9 @@ public class InputFormControl extends InplaceEditorRendererAdapter {
 	 */
 	@Override
 	public Object getRendererComponent(AuthorInplaceContext context) {
+		long start = rendererComponentLatency.start();
 		prepareComponent(context);
+		rendererComponentLatency.stop(start);
 
 		return componentPanel;
 	}
@@ -100,6 +135,7 @@ public class InputFormControl extends InplaceEditorRendererAdapter {
 	 */
 	@Override
 	public RendererLayoutInfo getRenderingInfo(AuthorInplaceContext context) {
+		long start = renderingInfoLatency.start();
 		prepareComponent(context);
 
 		int width = Integer.parseInt(context.getArguments().get("columns").toString());
@@ -108,8 +144,11 @@ public class InputFormControl extends InplaceEditorRendererAdapter {
 
 		ro.sync.exml.view.graphics.Dimension size = new ro.sync.exml.view.graphics.Dimension(width,
 				preferredSize.height);
+		RendererLayoutInfo renderingInfo = new RendererLayoutInfo(
+				componentPanel.getBaseline(width, preferredSize.height), size);
+		renderingInfoLatency.stop(start);
 
-		return new RendererLayoutInfo(componentPanel.getBaseline(width, preferredSize.height), size);
+		return renderingInfo;
 	}
 
 	/**
@@ -179,8 +218,18 @@ public class InputFormControl extends InplaceEditorRendererAdapter {
 	 */
 	private void prepareComponent(AuthorInplaceContext context) {
 		String values = (String) context.getArguments().get("datalist").toString();
-		componentPanel.initialize(values.split(","),
-				Integer.parseInt(context.getArguments().get("columns").toString()));
+		String columns = context.getArguments().get("columns").toString();
+		String argumentsKey = columns + ":" + values;
+
+		componentPanel = components.get(argumentsKey);
+		if (componentPanel == null) {
+			componentPanel = _createComponent();
+			componentPanel.initialize(DatalistRegistry.get(values), Integer.parseInt(columns));
+			components.put(argumentsKey, componentPanel);
+		} else {
+			componentPanel.restoreDatalist();
+		}
+		comboBox = componentPanel.comboBox;
 
 		String content = (String) context.getArguments().get(InplaceEditorArgumentKeys.INITIAL_VALUE);
 		if (content == null) {
@@ -0,0 +1,58 @@
+package ro.kuberam.oxygen.addonBuilder.templates.java.input;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * The values of a datalist, deduplicated, and their suggestion index, shared
+ * by all the inputs using the datalist.
+ *
+ * The array of values is shared, and it must not be modified.
+ *
+ * @author Claudius Teodorescu
+ */
+public class SharedDatalist {
+
+	public static final SharedDatalist empty = new SharedDatalist(new String[0]);
+
+	private final String[] values;
+	private final List<String> valueList;
+
+	/**
+	 * The index, built when the user types for the first time in an input
+	 * using the datalist, as most of the inputs are only rendered.
+	 */
+	private volatile SuggestionIndex suggestionIndex;
+
+	SharedDatalist(String[] values) {
+		this.values = new LinkedHashSet<String>(Arrays.asList(values)).toArray(new String[0]);
+		valueList = Collections.unmodifiableList(Arrays.asList(this.values));
+	}
+
+	public String[] getValues() {
+		return values;
+	}
+
+	public List<String> getValueList() {
+		return valueList;
+	}
+
+	public SuggestionIndex getSuggestionIndex() {
+		SuggestionIndex suggestionIndex = this.suggestionIndex;
+
+		if (suggestionIndex == null) {
+			synchronized (this) {
+				suggestionIndex = this.suggestionIndex;
+
+				if (suggestionIndex == null) {
+					suggestionIndex = new SuggestionIndex(values);
+					this.suggestionIndex = suggestionIndex;
+				}
+			}
+		}
+
+		return suggestionIndex;
+	}
+}
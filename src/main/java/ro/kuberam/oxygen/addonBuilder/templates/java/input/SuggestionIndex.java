@@ -0,0 +1,138 @@
+package ro.kuberam.oxygen.addonBuilder.templates.java.input;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An index of the values of a datalist, for finding the values containing a
+ * text, regardless of case.
+ *
+ * The values are lowercased only once, and the values containing each
+ * trigram are listed, so that only the values containing the rarest trigram
+ * of the text are checked. When the text extends the previous text, only the
+ * previous suggestions are checked.
+ *
+ * @author Claudius Teodorescu
+ */
+public class SuggestionIndex {
+
+	private static final int gramLength = 3;
+	private static final int[] noMatches = new int[0];
+
+	private final String[] values;
+	private final String[] lowerCaseValues;
+	private final Map<String, int[]> valuesByGram = new HashMap<String, int[]>();
+
+	/**
+	 * The values containing a text.
+	 */
+	public static class Suggestions {
+		private final String text;
+		private final int[] matches;
+
+		private Suggestions(String text, int[] matches) {
+			this.text = text;
+			this.matches = matches;
+		}
+
+		public String getText() {
+			return text;
+		}
+
+		/**
+		 * @return the indexes of the values, in the order of the datalist
+		 */
+		public int[] getMatches() {
+			return matches;
+		}
+	}
+
+	public SuggestionIndex(String[] values) {
+		this.values = values;
+		lowerCaseValues = new String[values.length];
+
+		Map<String, int[]> gramCounts = new HashMap<String, int[]>();
+		for (int i = 0; i < values.length; i++) {
+			lowerCaseValues[i] = values[i].toLowerCase();
+
+			for (String gram : _getGrams(lowerCaseValues[i])) {
+				gramCounts.computeIfAbsent(gram, key -> new int[1])[0]++;
+			}
+		}
+
+		Map<String, int[]> gramSizes = new HashMap<String, int[]>();
+		for (int i = 0; i < values.length; i++) {
+			for (String gram : _getGrams(lowerCaseValues[i])) {
+				int[] gramValues = valuesByGram.computeIfAbsent(gram, key -> new int[gramCounts.get(key)[0]]);
+				gramValues[gramSizes.computeIfAbsent(gram, key -> new int[1])[0]++] = i;
+			}
+		}
+	}
+
+	public String[] getValues() {
+		return values;
+	}
+
+	/**
+	 * Finds the values containing the text.
+	 *
+	 * @param previousSuggestions
+	 *            the suggestions for the previous text, or null
+	 */
+	public Suggestions search(String text, Suggestions previousSuggestions) {
+		String lowerCaseText = text.toLowerCase();
+		int[] candidates = null;
+
+		if (previousSuggestions != null && lowerCaseText.contains(previousSuggestions.text)) {
+			candidates = previousSuggestions.matches;
+		}
+
+		if (lowerCaseText.length() >= gramLength) {
+			for (int i = 0; i + gramLength <= lowerCaseText.length(); i++) {
+				int[] gramValues = valuesByGram.get(lowerCaseText.substring(i, i + gramLength));
+
+				if (gramValues == null) {
+					return new Suggestions(lowerCaseText, noMatches);
+				}
+				if (candidates == null || gramValues.length < candidates.length) {
+					candidates = gramValues;
+				}
+			}
+		}
+
+		int[] matches = new int[candidates == null ? values.length : candidates.length];
+		int matchCount = 0;
+
+		if (candidates == null) {
+			for (int i = 0; i < values.length; i++) {
+				if (lowerCaseValues[i].contains(lowerCaseText)) {
+					matches[matchCount++] = i;
+				}
+			}
+		} else {
+			for (int candidate : candidates) {
+				if (lowerCaseValues[candidate].contains(lowerCaseText)) {
+					matches[matchCount++] = candidate;
+				}
+			}
+		}
+
+		return new Suggestions(lowerCaseText, Arrays.copyOf(matches, matchCount));
+	}
+
+	/**
+	 * Returns the distinct trigrams of the value.
+	 */
+	private static Set<String> _getGrams(String value) {
+		Set<String> grams = new HashSet<String>();
+
+		for (int i = 0; i + gramLength <= value.length(); i++) {
+			grams.add(value.substring(i, i + gramLength));
+		}
+
+		return grams;
+	}
+}
@@ -0,0 +1,56 @@
+package ro.kuberam.oxygen.addonBuilder.templates.java.input;
+
+import javax.swing.AbstractListModel;
+import javax.swing.ComboBoxModel;
+
+/**
+ * A read-only model of the suggestions, which reads them from the values of
+ * the datalist only when they are shown, and shows at most a number of them.
+ *
+ * @author Claudius Teodorescu
+ */
+public class SuggestionListModel extends AbstractListModel<String> implements ComboBoxModel<String> {
+
+	private static final long serialVersionUID = -1868004937436153052L;
+
+	private final String[] values;
+	private final int[] matches;
+	private final int size;
+	private Object selectedItem;
+
+	/**
+	 * @param matches
+	 *            the indexes of the suggested values, or null for all the
+	 *            values
+	 * @param maxSize
+	 *            the maximum number of suggestions shown
+	 */
+	public SuggestionListModel(String[] values, int[] matches, int maxSize) {
+		this.values = values;
+		this.matches = matches;
+		this.size = Math.min(matches == null ? values.length : matches.length, maxSize);
+	}
+
+	@Override
+	public int getSize() {
+		return size;
+	}
+
+	@Override
+	public String getElementAt(int index) {
+		return values[matches == null ? index : matches[index]];
+	}
+
+	@Override
+	public void setSelectedItem(Object item) {
+		if (selectedItem == null ? item != null : !selectedItem.equals(item)) {
+			selectedItem = item;
+			fireContentsChanged(this, -1, -1);
+		}
+	}
+
+	@Override
+	public Object getSelectedItem() {
+		return selectedItem;
+	}
+}
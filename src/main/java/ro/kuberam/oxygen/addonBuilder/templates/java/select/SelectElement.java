@@ -2,10 +2,10 @@ package ro.kuberam.oxygen.addonBuilder.templates.java.select;
 
 import java.awt.Dimension;
 import java.awt.FlowLayout;
+import java.awt.FontMetrics;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 
-import javax.swing.DefaultListModel;
 import javax.swing.JButton;
 import javax.swing.JFrame;
 import javax.swing.JList;
@@ -21,6 +21,11 @@ public class SelectElement extends JPanel {
 	private static final long serialVersionUID = 1L;
 	public JList<Object> list;
 
+	/**
+	 * The values of the model, which is reused while they are the same.
+	 */
+	private String valuesAsString;
+
 	public SelectElement() {
 		list = new JList<Object>();
 		list.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
@@ -28,13 +33,33 @@ public class SelectElement extends JPanel {
 	}
 
 	public void setValues(String values) {
+		if (values.equals(valuesAsString)) {
+			// as setting a new model does
+			list.clearSelection();
+
+			return;
+		}
+
 		String[] valueObject = values.split(" ");
-		DefaultListModel<Object> listModel = new DefaultListModel<Object>();
-		for (int i = 0; i < valueObject.length; i++) {
-			listModel.add(i, valueObject[i]);
+
+		// the cells are rendered only for the widest value, not for each value
+		FontMetrics fontMetrics = list.getFontMetrics(list.getFont());
+		String widestValue = "";
+		int widestValueWidth = 0;
+		for (String value : valueObject) {
+			int valueWidth = fontMetrics.stringWidth(value);
+			if (valueWidth > widestValueWidth) {
+				widestValue = value;
+				widestValueWidth = valueWidth;
+			}
 		}
 
-		list.setModel(listModel);
+		Dimension cellSize = list.getCellRenderer().getListCellRendererComponent(list, widestValue, 0, false, false)
+				.getPreferredSize();
+		list.setFixedCellWidth(cellSize.width);
+		list.setFixedCellHeight(cellSize.height);
+		list.setModel(new ValuesListModel(valueObject));
+		valuesAsString = values;
 	}
 
 	public String getSelectedValues() {
@@ -1,5 +1,7 @@
 package ro.kuberam.oxygen.addonBuilder.templates.java.select;
 
+import ro.kuberam.oxygen.addonBuilder.instrumentation.LatencyRecorder;
+import ro.kuberam.oxygen.addonBuilder.instrumentation.LatencyRecorders;
 import ro.sync.ecss.extensions.api.CursorType;
 import ro.sync.ecss.extensions.api.editor.AbstractInplaceEditor;
 import ro.sync.ecss.extensions.api.editor.AuthorInplaceContext;
@@ -15,6 +17,10 @@ import ro.sync.exml.view.graphics.Rectangle;
  */
 public class SelectFormControl extends AbstractInplaceEditor implements InplaceRenderer {
 
+	private static final LatencyRecorder rendererComponentLatency = LatencyRecorders
+			.get("SelectFormControl.getRendererComponent");
+	private static final LatencyRecorder renderingInfoLatency = LatencyRecorders.get("SelectFormControl.getRenderingInfo");
+
 	/**
 	 * Select element.
 	 */
@@ -41,7 +47,9 @@ public class SelectFormControl extends AbstractInplaceEditor implements InplaceR
 	 */
 	@Override
 	public Object getRendererComponent(AuthorInplaceContext context) {
+		long start = rendererComponentLatency.start();
 		prepareComponent(context);
+		rendererComponentLatency.stop(start);
 
 		return selectElement;
 	}
@@ -51,6 +59,7 @@ public class SelectFormControl extends AbstractInplaceEditor implements InplaceR
 	 */
 	@Override
 	public RendererLayoutInfo getRenderingInfo(AuthorInplaceContext context) {
+		long start = renderingInfoLatency.start();
 		prepareComponent(context);
 
 		int cols = 400;//Integer.parseInt(context.getArguments().get("cols").toString());
@@ -58,8 +67,10 @@ public class SelectFormControl extends AbstractInplaceEditor implements InplaceR
 		cols = (cols > 0) ? cols : 30;
 
 		ro.sync.exml.view.graphics.Dimension size = new ro.sync.exml.view.graphics.Dimension(cols, rows);
+		RendererLayoutInfo renderingInfo = new RendererLayoutInfo(selectElement.getBaseline(cols, rows), size);
+		renderingInfoLatency.stop(start);
 
-		return new RendererLayoutInfo(selectElement.getBaseline(cols, rows), size);
+		return renderingInfo;
 	}
 
 	/**
@@ -0,0 +1,31 @@
+package ro.kuberam.oxygen.addonBuilder.templates.java.select;
+
+import javax.swing.AbstractListModel;
+
+/**
+ * A read-only model of the values of a select element, which reads them
+ * directly from their array, without copying them or firing an event for each
+ * of them.
+ *
+ * @author Claudius Teodorescu
+ */
+public class ValuesListModel extends AbstractListModel<Object> {
+
+	private static final long serialVersionUID = 4921853606387240215L;
+
+	private final String[] values;
+
+	public ValuesListModel(String[] values) {
+		this.values = values;
+	}
+
+	@Override
+	public int getSize() {
+		return values.length;
+	}
+
+	@Override
+	public Object getElementAt(int index) {
+		return values[index];
+	}
+}
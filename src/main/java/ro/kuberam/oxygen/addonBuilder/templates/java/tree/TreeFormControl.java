@@ -18,6 +18,8 @@ import org.apache.log4j.Logger;
 
 import javafx.embed.swing.JFXPanel;
 import ro.kuberam.oxygen.addonBuilder.SerialisedObjects;
+import ro.kuberam.oxygen.addonBuilder.instrumentation.LatencyRecorder;
+import ro.kuberam.oxygen.addonBuilder.instrumentation.LatencyRecorders;
 import ro.kuberam.oxygen.addonBuilder.javafx.FXML2JavaFX;
 import ro.kuberam.oxygen.addonBuilder.javafx.JavaFXPanel;
 import ro.kuberam.oxygen.addonBuilder.javafx.bridges.ui.UserInterfaceBridge;
@@ -43,6 +45,10 @@ public class TreeFormControl extends InplaceEditorRendererAdapter {
 	 */
 	private static final Logger logger = Logger.getLogger(TreeFormControl.class.getName());
 
+	private static final LatencyRecorder rendererComponentLatency = LatencyRecorders
+			.get("TreeFormControl.getRendererComponent");
+	private static final LatencyRecorder renderingInfoLatency = LatencyRecorders.get("TreeFormControl.getRenderingInfo");
+
 	/**
 	 * Access to the author specific functions.
 	 */
@@ -142,7 +148,9 @@ public class TreeFormControl extends InplaceEditorRendererAdapter {
 	 */
 	@Override
 	public Object getRendererComponent(AuthorInplaceContext context) {
+		long start = rendererComponentLatency.start();
 		prepareComponent(context);
+		rendererComponentLatency.stop(start);
 
 		return componentPanel;
 	}
@@ -152,12 +160,15 @@ public class TreeFormControl extends InplaceEditorRendererAdapter {
 	 */
 	@Override
 	public RendererLayoutInfo getRenderingInfo(AuthorInplaceContext context) {
+		long start = renderingInfoLatency.start();
 		int width = Integer.parseInt(context.getArguments().get("columns").toString());
 		int height = Integer.parseInt(context.getArguments().get("rows").toString());
 
 		ro.sync.exml.view.graphics.Dimension size = new ro.sync.exml.view.graphics.Dimension(width, height);
+		RendererLayoutInfo renderingInfo = new RendererLayoutInfo(componentPanel.getBaseline(width, height), size);
+		renderingInfoLatency.stop(start);
 
-		return new RendererLayoutInfo(componentPanel.getBaseline(width, height), size);
+		return renderingInfo;
 	}
 
 	/**
@@ -180,7 +191,7 @@ public class TreeFormControl extends InplaceEditorRendererAdapter {
 		} else {
 			generatedTreeIds.add(treeGeneratorTemplateId);
 
-			String treeTemplate = SerialisedObjects.templates.get(treeGeneratorTemplateId);
+			String treeTemplate = SerialisedObjects.getTemplates().get(treeGeneratorTemplateId);
 			// logger.debug("treeTemplate = " + treeTemplate);
 
 			String content = XQueryOperation.query(authorEditorAccess.createContentReader(),
@@ -0,0 +1,168 @@
+package ro.kuberam.oxygen.addonBuilder.utils;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import ro.kuberam.oxygen.addonBuilder.javafx.DialogModel;
+import ro.kuberam.oxygen.addonBuilder.mutations.ObserverConnection;
+
+/**
+ * Reads the artifacts written by {@link ArtifactOutputStream}.
+ *
+ * @author Claudius Teodorescu
+ */
+public class ArtifactInputStream extends DataInputStream {
+
+	/**
+	 * Reads an artifact, as <code>ArtifactInputStream::readStringMap</code>.
+	 */
+	public interface ArtifactReader<T> {
+		public T read(ArtifactInputStream in) throws IOException;
+	}
+
+	public ArtifactInputStream(InputStream in) throws IOException {
+		super(new BufferedInputStream(in));
+
+		if (readInt() != ArtifactOutputStream.MAGIC) {
+			throw new IOException("not an artifact file");
+		}
+
+		int version = readInt();
+		if (version != ArtifactOutputStream.VERSION) {
+			throw new IOException("unsupported version of the artifact file: " + version);
+		}
+	}
+
+	public String readString() throws IOException {
+		int length = readInt();
+		if (length == -1) {
+			return null;
+		}
+
+		byte[] bytes = new byte[length];
+		readFully(bytes);
+
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	public String[] readStringArray() throws IOException {
+		int length = readInt();
+		if (length == -1) {
+			return null;
+		}
+
+		String[] values = new String[length];
+		for (int i = 0; i < length; i++) {
+			values[i] = readString();
+		}
+
+		return values;
+	}
+
+	public ArrayList<String> readStringList() throws IOException {
+		int size = readInt();
+		ArrayList<String> values = new ArrayList<String>(size);
+		for (int i = 0; i < size; i++) {
+			values.add(readString());
+		}
+
+		return values;
+	}
+
+	public Map<String, String> readStringMap() throws IOException {
+		int size = readInt();
+		Map<String, String> map = new HashMap<String, String>();
+		for (int i = 0; i < size; i++) {
+			map.put(readString(), readString());
+		}
+
+		return map;
+	}
+
+	public IndexedStringMap readIndexedStringMap() throws IOException {
+		int size = readInt();
+		Map<String, int[]> index = new HashMap<String, int[]>();
+		for (int i = 0; i < size; i++) {
+			index.put(readString(), new int[] { readInt(), readInt() });
+		}
+
+		byte[] data = new byte[readInt()];
+		readFully(data);
+
+		return new IndexedStringMap(index, data);
+	}
+
+	public Map<String, String[]> readStringArrayMap() throws IOException {
+		int size = readInt();
+		Map<String, String[]> map = new HashMap<String, String[]>();
+		for (int i = 0; i < size; i++) {
+			map.put(readString(), readStringArray());
+		}
+
+		return map;
+	}
+
+	public Map<String, ArrayList<String>> readStringListMap() throws IOException {
+		int size = readInt();
+		Map<String, ArrayList<String>> map = new HashMap<String, ArrayList<String>>();
+		for (int i = 0; i < size; i++) {
+			map.put(readString(), readStringList());
+		}
+
+		return map;
+	}
+
+	public Map<String, ObserverConnection> readObserverConnections() throws IOException {
+		int size = readInt();
+		Map<String, ObserverConnection> map = new HashMap<String, ObserverConnection>();
+		for (int i = 0; i < size; i++) {
+			String key = readString();
+			String observerHandler = readString();
+			String nodeSelector = readString();
+
+			int optionCount = readInt();
+			Map<String, Object> options = new HashMap<String, Object>();
+			for (int j = 0; j < optionCount; j++) {
+				String name = readString();
+				if (readByte() == ArtifactOutputStream.LIST_VALUE) {
+					options.put(name, readStringList());
+				} else {
+					options.put(name, readString());
+				}
+			}
+
+			map.put(key, new ObserverConnection(observerHandler, nodeSelector, options));
+		}
+
+		return map;
+	}
+
+	public Map<String, DialogModel> readDialogs() throws IOException {
+		int size = readInt();
+		Map<String, DialogModel> map = new HashMap<String, DialogModel>();
+		for (int i = 0; i < size; i++) {
+			String key = readString();
+			String id = readString();
+			String type = readString();
+			String title = readString();
+			int width = readInt();
+			int height = readInt();
+			String resize = readString();
+			String[] margin = readStringArray();
+			String dataSrc = readString();
+			String jsObjectName = readString();
+			String content = readString();
+
+			map.put(key, new DialogModel(id, type, title, width, height, resize, margin, dataSrc, jsObjectName,
+					content));
+		}
+
+		return map;
+	}
+}
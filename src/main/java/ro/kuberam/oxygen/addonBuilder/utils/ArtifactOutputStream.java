@@ -0,0 +1,171 @@
+package ro.kuberam.oxygen.addonBuilder.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import ro.kuberam.oxygen.addonBuilder.javafx.DialogModel;
+import ro.kuberam.oxygen.addonBuilder.mutations.ObserverConnection;
+
+/**
+ * Writes the artifacts generated by the parser (observers, templates,
+ * dialogs, etc.) in a compact binary format, which is read by
+ * {@link ArtifactInputStream}.
+ *
+ * The format starts with a magic number and a version, followed by the
+ * content. The strings are written as their length in UTF-8 bytes (-1 for
+ * null), followed by the bytes, and the collections as their size, followed
+ * by their items.
+ *
+ * @author Claudius Teodorescu
+ */
+public class ArtifactOutputStream extends DataOutputStream {
+
+	public static final int MAGIC = 0x55414142;
+	public static final int VERSION = 1;
+	public static final String extension = ".bin";
+
+	static final byte STRING_VALUE = 1;
+	static final byte LIST_VALUE = 2;
+
+	/**
+	 * Writes an artifact, as <code>out -> out.writeStringMap(templates)</code>.
+	 */
+	public interface ArtifactWriter {
+		public void write(ArtifactOutputStream out) throws IOException;
+	}
+
+	public ArtifactOutputStream(OutputStream out) throws IOException {
+		super(new BufferedOutputStream(out));
+
+		writeInt(MAGIC);
+		writeInt(VERSION);
+	}
+
+	public void writeString(String value) throws IOException {
+		if (value == null) {
+			writeInt(-1);
+			return;
+		}
+
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeInt(bytes.length);
+		write(bytes);
+	}
+
+	public void writeStringArray(String[] values) throws IOException {
+		if (values == null) {
+			writeInt(-1);
+			return;
+		}
+
+		writeInt(values.length);
+		for (String value : values) {
+			writeString(value);
+		}
+	}
+
+	public void writeStringList(Collection<String> values) throws IOException {
+		writeInt(values.size());
+		for (String value : values) {
+			writeString(value);
+		}
+	}
+
+	public void writeStringMap(Map<String, String> map) throws IOException {
+		writeInt(map.size());
+		for (Map.Entry<String, String> entry : map.entrySet()) {
+			writeString(entry.getKey());
+			writeString(entry.getValue());
+		}
+	}
+
+	/**
+	 * Writes the keys with the offsets and the lengths of their values,
+	 * followed by the values, so that the values can be decoded on demand.
+	 */
+	public void writeIndexedStringMap(Map<String, String> map) throws IOException {
+		ByteArrayOutputStream data = new ByteArrayOutputStream();
+
+		writeInt(map.size());
+		for (Map.Entry<String, String> entry : map.entrySet()) {
+			byte[] bytes = entry.getValue().getBytes(StandardCharsets.UTF_8);
+
+			writeString(entry.getKey());
+			writeInt(data.size());
+			writeInt(bytes.length);
+			data.write(bytes);
+		}
+
+		writeInt(data.size());
+		data.writeTo(this);
+	}
+
+	public void writeStringArrayMap(Map<String, String[]> map) throws IOException {
+		writeInt(map.size());
+		for (Map.Entry<String, String[]> entry : map.entrySet()) {
+			writeString(entry.getKey());
+			writeStringArray(entry.getValue());
+		}
+	}
+
+	public void writeStringListMap(Map<String, ? extends Collection<String>> map) throws IOException {
+		writeInt(map.size());
+		for (Map.Entry<String, ? extends Collection<String>> entry : map.entrySet()) {
+			writeString(entry.getKey());
+			writeStringList(entry.getValue());
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	public void writeObserverConnections(Map<String, ObserverConnection> map) throws IOException {
+		writeInt(map.size());
+		for (Map.Entry<String, ObserverConnection> entry : map.entrySet()) {
+			ObserverConnection observerConnection = entry.getValue();
+			Map<String, Object> options = observerConnection.getOptions();
+
+			writeString(entry.getKey());
+			writeString(observerConnection.getObserverHandler());
+			writeString(observerConnection.getNodeSelector());
+
+			writeInt(options.size());
+			for (Map.Entry<String, Object> option : options.entrySet()) {
+				Object value = option.getValue();
+
+				writeString(option.getKey());
+				if (value instanceof List) {
+					writeByte(LIST_VALUE);
+					writeStringList((List<String>) value);
+				} else {
+					writeByte(STRING_VALUE);
+					writeString((value == null) ? null : value.toString());
+				}
+			}
+		}
+	}
+
+	public void writeDialogs(Map<String, DialogModel> map) throws IOException {
+		writeInt(map.size());
+		for (Map.Entry<String, DialogModel> entry : map.entrySet()) {
+			DialogModel dialog = entry.getValue();
+
+			writeString(entry.getKey());
+			writeString(dialog.id);
+			writeString(dialog.type);
+			writeString(dialog.title);
+			writeInt(dialog.width);
+			writeInt(dialog.height);
+			writeString(dialog.resize);
+			writeStringArray(dialog.margin);
+			writeString(dialog.dataSrc);
+			writeString(dialog.jsObjectName);
+			writeString(dialog.content);
+		}
+	}
+}
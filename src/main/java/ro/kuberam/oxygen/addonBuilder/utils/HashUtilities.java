@@ -0,0 +1,33 @@
+package ro.kuberam.oxygen.addonBuilder.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Hashes used as keys by the parser cache and by the cache of the compiled
+ * queries.
+ *
+ * @author Claudius Teodorescu
+ */
+public class HashUtilities {
+
+	public static String hash(String content) {
+		return hash(content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public static String hash(byte[] content) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-1").digest(content);
+			StringBuilder result = new StringBuilder(digest.length * 2);
+
+			for (byte b : digest) {
+				result.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+			}
+
+			return result.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+	}
+}
@@ -1,16 +1,20 @@
 package ro.kuberam.oxygen.addonBuilder.utils;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
 
 import javax.xml.transform.Result;
 import javax.xml.transform.Source;
@@ -25,6 +29,8 @@ import javax.xml.transform.stream.StreamResult;
 import org.w3c.dom.Element;
 
 import ro.kuberam.oxygen.addonBuilder.AddonBuilderPluginExtension;
+import ro.kuberam.oxygen.addonBuilder.utils.ArtifactInputStream.ArtifactReader;
+import ro.kuberam.oxygen.addonBuilder.utils.ArtifactOutputStream.ArtifactWriter;
 
 public class IOUtilities {
 
@@ -100,6 +106,53 @@ public class IOUtilities {
 		return result;
 	}
 
+	/**
+	 * Writes an artifact only if its content changed, so that the unchanged
+	 * artifacts keep their timestamps.
+	 */
+	public static void writeArtifactFile(File folderPath, String artifactName, ArtifactWriter writer)
+			throws IOException {
+		ByteArrayOutputStream content = new ByteArrayOutputStream();
+		try (ArtifactOutputStream out = new ArtifactOutputStream(content)) {
+			writer.write(out);
+		}
+		byte[] bytes = content.toByteArray();
+
+		Path path = Paths.get(folderPath.getAbsolutePath(), artifactName + ArtifactOutputStream.extension);
+		if (Files.exists(path) && Arrays.equals(Files.readAllBytes(path), bytes)) {
+			return;
+		}
+
+		Files.write(path, bytes);
+	}
+
+	/**
+	 * Reads an artifact from the resources of the class. The frameworks
+	 * generated by older versions of the plugin have the artifacts serialized
+	 * with Java serialization, and these are read if the binary ones are
+	 * missing.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> T readArtifact(Class<?> resourceClass, String artifactName, ArtifactReader<T> reader)
+			throws FileNotFoundException, IOException, ClassNotFoundException {
+		InputStream is = resourceClass.getResourceAsStream(artifactName + ArtifactOutputStream.extension);
+
+		if (is == null) {
+			is = resourceClass.getResourceAsStream(artifactName + ".ser");
+			if (is == null) {
+				throw new FileNotFoundException(artifactName);
+			}
+
+			try (ObjectInputStream ois = new ObjectInputStream(is)) {
+				return (T) ois.readObject();
+			}
+		}
+
+		try (ArtifactInputStream ais = new ArtifactInputStream(is)) {
+			return reader.read(ais);
+		}
+	}
+
 	public static void saveXmlToFile(Element documentElement, File outputFile) {
 		Transformer transformer;
 		try {
@@ -0,0 +1,80 @@
+package ro.kuberam.oxygen.addonBuilder.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-only map whose values are kept as the UTF-8 bytes they were read from,
+ * and are decoded on the first {@link #get(Object)}, so that the values that
+ * are not used are never materialized as strings.
+ *
+ * It is read by {@link ArtifactInputStream#readIndexedStringMap()}.
+ *
+ * @author Claudius Teodorescu
+ */
+public class IndexedStringMap extends AbstractMap<String, String> {
+
+	private final Map<String, int[]> index;
+	private final byte[] data;
+	private final Map<String, String> values = new ConcurrentHashMap<String, String>();
+
+	/**
+	 * @param index
+	 *            the offset and the length in the data of the value of each key
+	 */
+	IndexedStringMap(Map<String, int[]> index, byte[] data) {
+		this.index = index;
+		this.data = data;
+	}
+
+	@Override
+	public String get(Object key) {
+		if (key == null) {
+			return null;
+		}
+
+		String value = values.get(key);
+
+		if (value == null) {
+			int[] position = index.get(key);
+			if (position == null) {
+				return null;
+			}
+
+			value = new String(data, position[0], position[1], StandardCharsets.UTF_8);
+			values.put((String) key, value);
+		}
+
+		return value;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return index.containsKey(key);
+	}
+
+	@Override
+	public int size() {
+		return index.size();
+	}
+
+	@Override
+	public Set<String> keySet() {
+		return Collections.unmodifiableSet(index.keySet());
+	}
+
+	@Override
+	public Set<Map.Entry<String, String>> entrySet() {
+		Set<Map.Entry<String, String>> entries = new LinkedHashSet<Map.Entry<String, String>>();
+		for (String key : index.keySet()) {
+			entries.add(new SimpleImmutableEntry<String, String>(key, get(key)));
+		}
+
+		return entries;
+	}
+}
@@ -31,22 +31,41 @@ import ro.sync.ecss.extensions.api.AuthorDocumentController;
 
 public class XML {
 	private static DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-	private static DocumentBuilder builder = null;
-	static {
+	// a document builder is not thread safe
+	private static ThreadLocal<DocumentBuilder> builder = ThreadLocal.withInitial(() -> {
 		try {
-			factory.setNamespaceAware(true);
-			builder = factory.newDocumentBuilder();
+			synchronized (factory) {
+				return factory.newDocumentBuilder();
+			}
 		} catch (ParserConfigurationException e) {
 			e.printStackTrace();
 		}
+
+		return null;
+	});
+	static {
+		factory.setNamespaceAware(true);
 	}
 
 	public static String xmlToString(Node node, String indent, String omit_xml_declaration) {
+		return xmlToString(node, indent, omit_xml_declaration, null);
+	}
+
+	/**
+	 * @param transformerFactoryClassName
+	 *            the class of the transformer factory, or null for the default
+	 *            one
+	 */
+	public static String xmlToString(Node node, String indent, String omit_xml_declaration,
+			String transformerFactoryClassName) {
 		Transformer transformer = null;
 		StreamResult result = null;
 
 		try {
-			transformer = TransformerFactory.newInstance().newTransformer();
+			TransformerFactory transformerFactory = (transformerFactoryClassName == null)
+					? TransformerFactory.newInstance()
+					: TransformerFactory.newInstance(transformerFactoryClassName, null);
+			transformer = transformerFactory.newTransformer();
 			transformer.setOutputProperty(OutputKeys.INDENT, indent);
 			transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, omit_xml_declaration);
 			result = new StreamResult(new StringWriter());
@@ -93,7 +112,7 @@ public class XML {
 		Document result = null;
 		try {
 			InputSource is = new InputSource(new StringReader(xmlString));
-			result = builder.parse(is);
+			result = builder.get().parse(is);
 		} catch (SAXException e) {
 			e.printStackTrace();
 		} catch (IOException e) {
@@ -106,7 +125,7 @@ public class XML {
 	public static Element parse(File xmlFile) {
 		Document result = null;
 		try {
-			result = builder.parse(xmlFile);
+			result = builder.get().parse(xmlFile);
 		} catch (SAXException e) {
 			e.printStackTrace();
 		} catch (IOException e) {
@@ -119,7 +138,7 @@ public class XML {
 	public static Element parse(InputStream is) {
 		Document result = null;
 		try {
-			result = builder.parse(is);
+			result = builder.get().parse(is);
 		} catch (SAXException e) {
 			e.printStackTrace();
 		} catch (IOException e) {
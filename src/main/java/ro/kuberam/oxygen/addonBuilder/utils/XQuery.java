@@ -7,7 +7,7 @@ public class XQuery {
 
 	public static String completeXqueryScript(String xqueryScript) {
 		String completedXqueryScript = "";
-		completedXqueryScript += SerialisedObjects.variablesModule;
+		completedXqueryScript += SerialisedObjects.getVariablesModule();
 		
 		return completedXqueryScript + xqueryScript.replace("$document", "$ua:document");
 	}
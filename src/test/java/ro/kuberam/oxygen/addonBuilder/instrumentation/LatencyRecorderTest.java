@@ -0,0 +1,43 @@
+package ro.kuberam.oxygen.addonBuilder.instrumentation;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LatencyRecorderTest {
+
+	@Test
+	public void testPercentiles() {
+		LatencyRecorder recorder = new LatencyRecorder("test");
+
+		for (long time = 1; time <= 1000; time++) {
+			recorder.record(time * 1000);
+		}
+
+		Assert.assertEquals(1000, recorder.getCount());
+		Assert.assertEquals(1000000, recorder.getMax());
+		Assert.assertEquals(500500, recorder.getMean(), 0.001);
+		_assertEqualsWithPrecision(500000, recorder.getValueAtPercentile(50));
+		_assertEqualsWithPrecision(990000, recorder.getValueAtPercentile(99));
+		Assert.assertEquals(1000000, recorder.getValueAtPercentile(100));
+	}
+
+	@Test
+	public void testSmallAndLargeValues() {
+		LatencyRecorder recorder = new LatencyRecorder("test");
+		recorder.record(3);
+		recorder.record(Long.MAX_VALUE);
+		recorder.record(-1);
+
+		Assert.assertEquals(2, recorder.getCount());
+		Assert.assertEquals(3, recorder.getValueAtPercentile(50));
+		Assert.assertEquals(Long.MAX_VALUE, recorder.getValueAtPercentile(100));
+
+		recorder.reset();
+		Assert.assertEquals(0, recorder.getCount());
+		Assert.assertEquals(0, recorder.getValueAtPercentile(99));
+	}
+
+	private static void _assertEqualsWithPrecision(long expected, long actual) {
+		Assert.assertTrue(actual + " is not " + expected, Math.abs(actual - expected) <= expected / 16);
+	}
+}
@@ -0,0 +1,110 @@
+package ro.kuberam.oxygen.addonBuilder.mutations;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ObserverIndexTest {
+
+	private static final String prolog = "declare namespace ua = \"http://expath.org/ns/user-agent\"; declare namespace tei = \"http://www.tei-c.org/ns/1.0\"; ";
+	private static final String teiNamespace = "http://www.tei-c.org/ns/1.0";
+
+	@Test
+	public void testXPathSelectors() {
+		Map<String, ObserverConnection> connectObserverActions = new HashMap<String, ObserverConnection>();
+		Map<String, String> nodeSelectors = new HashMap<String, String>();
+		_connectObserver(connectObserverActions, nodeSelectors, "entryObserver", "//entry", "xpath", "type", "n");
+		_connectObserver(connectObserverActions, nodeSelectors, "senseObserver", "//tei:sense | //def", "xpath");
+
+		ObserverIndex observerIndex = _getObserverIndex(connectObserverActions, nodeSelectors);
+
+		Assert.assertArrayEquals(new Object[] { "delete", "search" },
+				observerIndex.getAttributeActions(null, "entry", "type"));
+		Assert.assertArrayEquals(new Object[] { "delete", "search" },
+				observerIndex.getAttributeActions(teiNamespace, "entry", "n"));
+		Assert.assertEquals(0, observerIndex.getAttributeActions(null, "entry", "xml:id").length);
+		Assert.assertArrayEquals(new Object[] { "search" },
+				observerIndex.getAttributeActions(teiNamespace, "sense", "xml:id"));
+		Assert.assertEquals(0, observerIndex.getAttributeActions(null, "sense", "xml:id").length);
+		Assert.assertArrayEquals(new Object[] { "search" }, observerIndex.getAttributeActions(null, "def", "n"));
+		Assert.assertEquals(0, observerIndex.getAttributeActions(null, "form", "type").length);
+	}
+
+	@Test
+	public void testCssSelectors() {
+		Map<String, ObserverConnection> connectObserverActions = new HashMap<String, ObserverConnection>();
+		Map<String, String> nodeSelectors = new HashMap<String, String>();
+		_connectObserver(connectObserverActions, nodeSelectors, "entryObserver", "tei|entry, form", "css", "type");
+		_connectObserver(connectObserverActions, nodeSelectors, "senseObserver", "*|entry", "css");
+
+		ObserverIndex observerIndex = _getObserverIndex(connectObserverActions, nodeSelectors);
+
+		Assert.assertArrayEquals(new Object[] { "delete", "search" },
+				observerIndex.getAttributeActions(teiNamespace, "entry", "type"));
+		Assert.assertArrayEquals(new Object[] { "search" },
+				observerIndex.getAttributeActions(teiNamespace, "entry", "n"));
+		Assert.assertArrayEquals(new Object[] { "search" }, observerIndex.getAttributeActions(null, "entry", "type"));
+		Assert.assertArrayEquals(new Object[] { "delete", "search" },
+				observerIndex.getAttributeActions(null, "form", "type"));
+	}
+
+	@Test
+	public void testCharacterDataAndChildList() {
+		Map<String, ObserverConnection> connectObserverActions = new HashMap<String, ObserverConnection>();
+		Map<String, String> nodeSelectors = new HashMap<String, String>();
+		_connectObserver(connectObserverActions, nodeSelectors, "entryObserver", "//entry", "xpath", "type");
+		connectObserverActions.get("//entry").getOptions().put("characterData", "true");
+		_connectObserver(connectObserverActions, nodeSelectors, "senseObserver", "//*", "xpath");
+		connectObserverActions.get("//*").getOptions().remove("attributes");
+		connectObserverActions.get("//*").getOptions().put("childList", "true");
+
+		ObserverIndex observerIndex = _getObserverIndex(connectObserverActions, nodeSelectors);
+
+		Assert.assertTrue(observerIndex.isObserved(MutationRecord.CHARACTER_DATA));
+		Assert.assertArrayEquals(new Object[] { "delete", "search" },
+				observerIndex.getActions(MutationRecord.CHARACTER_DATA, null, "entry", null));
+		Assert.assertEquals(0, observerIndex.getActions(MutationRecord.CHARACTER_DATA, null, "sense", null).length);
+		Assert.assertArrayEquals(new Object[] { "search" },
+				observerIndex.getActions(MutationRecord.CHILD_LIST, teiNamespace, "sense", null));
+		Assert.assertEquals(0, observerIndex.getAttributeActions(null, "sense", "type").length);
+	}
+
+	@Test
+	public void testUnsupportedSelectors() {
+		Map<String, ObserverConnection> connectObserverActions = new HashMap<String, ObserverConnection>();
+		Map<String, String> nodeSelectors = new HashMap<String, String>();
+		_connectObserver(connectObserverActions, nodeSelectors, "entryObserver", "//entry[@type]", "xpath", "type");
+		_connectObserver(connectObserverActions, nodeSelectors, "senseObserver", "//x:sense", "xpath");
+
+		Assert.assertTrue(_getObserverIndex(connectObserverActions, nodeSelectors).isEmpty());
+	}
+
+	private static void _connectObserver(Map<String, ObserverConnection> connectObserverActions,
+			Map<String, String> nodeSelectors, String observerHandler, String nodeSelector, String selectorType,
+			String... attributeFilter) {
+		Map<String, Object> options = new HashMap<String, Object>();
+		options.put("attributes", "true");
+		if (attributeFilter.length > 0) {
+			options.put("attributeFilter", Arrays.asList(attributeFilter));
+		}
+
+		connectObserverActions.put(nodeSelector, new ObserverConnection(observerHandler, nodeSelector, options));
+		nodeSelectors.put(nodeSelector, selectorType);
+	}
+
+	private static ObserverIndex _getObserverIndex(Map<String, ObserverConnection> connectObserverActions,
+			Map<String, String> nodeSelectors) {
+		Map<String, String[]> observers = new HashMap<String, String[]>();
+		observers.put("entryObserver", new String[] { "delete", "search", "missing" });
+		observers.put("senseObserver", new String[] { "search" });
+
+		Map<String, Object> actions = new HashMap<String, Object>();
+		actions.put("delete", "delete");
+		actions.put("search", "search");
+
+		return new ObserverIndex(connectObserverActions, nodeSelectors, observers, actions, prolog);
+	}
+}
@@ -0,0 +1,148 @@
+package ro.kuberam.oxygen.addonBuilder.mutations;
+
+import java.awt.event.ActionEvent;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.AbstractAction;
+import javax.swing.Action;
+import javax.swing.SwingUtilities;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import ro.sync.ecss.extensions.api.node.AuthorElement;
+import ro.sync.ecss.extensions.api.node.AuthorNode;
+import ro.sync.exml.workspace.api.editor.page.author.actions.AuthorActionsProvider;
+
+public class ProcessMutationRecordTest {
+
+	@Test
+	public void testBatchedInvocations() throws Exception {
+		List<String> invocations = Collections.synchronizedList(new ArrayList<String>());
+		CountDownLatch invoked = new CountDownLatch(1);
+		ProcessMutationRecord processMutationRecord = _getProcessMutationRecord(invocations, invoked, "delete");
+
+		AuthorNode document = _proxy(AuthorNode.class, (name, args) -> null);
+		AuthorElement parent = _getElement("entries", document, 0);
+		AuthorElement entry = _getElement("entry", parent, 10);
+		AuthorElement removedEntry = _getElement("entry", null, 20);
+
+		SwingUtilities.invokeAndWait(() -> {
+			processMutationRecord.attributes(entry, "type", null, null);
+			processMutationRecord.attributes(entry, "type", null, "n");
+			processMutationRecord.attributes(entry, "n", null, null);
+			processMutationRecord.attributes(removedEntry, "type", null, null);
+			processMutationRecord.attributes(parent, "type", null, null);
+		});
+
+		Assert.assertTrue(invoked.await(5, TimeUnit.SECONDS));
+		SwingUtilities.invokeAndWait(() -> {
+		});
+
+		Assert.assertEquals(Arrays.asList("delete@11", "delete@1"), invocations);
+	}
+
+	@Test
+	public void testFailingAction() throws Exception {
+		List<String> invocations = Collections.synchronizedList(new ArrayList<String>());
+		CountDownLatch invoked = new CountDownLatch(2);
+		ProcessMutationRecord processMutationRecord = _getProcessMutationRecord(invocations, invoked, "fail",
+				"delete");
+
+		AuthorElement entry = _getElement("entry", _proxy(AuthorNode.class, (name, args) -> null), 10);
+
+		SwingUtilities.invokeAndWait(() -> processMutationRecord.attributes(entry, "type", null, null));
+
+		Assert.assertTrue(invoked.await(5, TimeUnit.SECONDS));
+		Assert.assertEquals(Arrays.asList("fail@11", "delete@11"), invocations);
+	}
+
+	/**
+	 * Observes the attribute changes of all the elements, with the actions,
+	 * whose invocations are logged, while the action named "fail" throws an
+	 * exception.
+	 */
+	private static ProcessMutationRecord _getProcessMutationRecord(List<String> invocations, CountDownLatch invoked,
+			String... actionNames) {
+		Map<String, Object> options = new HashMap<String, Object>();
+		options.put("attributes", "true");
+		Map<String, ObserverConnection> connectObserverActions = new HashMap<String, ObserverConnection>();
+		connectObserverActions.put("//*", new ObserverConnection("observer", "//*", options));
+
+		Map<String, String[]> observers = new HashMap<String, String[]>();
+		observers.put("observer", actionNames);
+
+		Map<String, Object> actions = new HashMap<String, Object>();
+		for (String actionName : actionNames) {
+			actions.put(actionName, new AbstractAction(actionName) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				public void actionPerformed(ActionEvent e) {
+				}
+			});
+		}
+
+		ObserverIndex observerIndex = new ObserverIndex(connectObserverActions,
+				Collections.singletonMap("//*", "xpath"), observers, actions, "");
+
+		AuthorActionsProvider authorActionsProvider = _proxy(AuthorActionsProvider.class, (name, args) -> {
+			if (name.equals("invokeAuthorExtensionActionInContext")) {
+				String actionName = (String) ((Action) args[0]).getValue(Action.NAME);
+				invocations.add(actionName + "@" + args[1]);
+				invoked.countDown();
+
+				if (actionName.equals("fail")) {
+					throw new IllegalStateException();
+				}
+			}
+
+			return null;
+		});
+
+		return new ProcessMutationRecord(authorActionsProvider, observerIndex);
+	}
+
+	private static AuthorElement _getElement(String localName, AuthorNode parent, int startOffset) {
+		return _proxy(AuthorElement.class, (name, args) -> {
+			switch (name) {
+			case "getLocalName":
+				return localName;
+			case "getParent":
+				return parent;
+			case "getStartOffset":
+				return startOffset;
+			default:
+				return null;
+			}
+		});
+	}
+
+	private interface MethodHandler {
+		Object invoke(String name, Object[] args);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T _proxy(Class<T> type, MethodHandler handler) {
+		return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+			switch (method.getName()) {
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "equals":
+				return proxy == args[0];
+			case "toString":
+				return type.getSimpleName();
+			default:
+				return handler.invoke(method.getName(), args);
+			}
+		});
+	}
+}
@@ -0,0 +1,149 @@
+package ro.kuberam.oxygen.addonBuilder.parser;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import ro.kuberam.oxygen.addonBuilder.utils.ArtifactInputStream;
+import ro.kuberam.oxygen.addonBuilder.utils.ArtifactOutputStream;
+
+public class ParserCacheTest {
+
+	private static String frameworkDescriptor = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><serialized><map><entry>"
+			+ "<String>x</String><documentTypeDescriptor-array><documentTypeDescriptor>"
+			+ "<field name=\"authorExtensionDescriptor\"><authorExtension><field name=\"actionDescriptors\">"
+			+ "<action-array/></field></authorExtension></field></documentTypeDescriptor>"
+			+ "</documentTypeDescriptor-array></entry></map></serialized>";
+
+	private static String xquery = "xquery version \"3.0\";\n"
+			+ "declare namespace ua = \"http://expath.org/ns/user-agent\";\n"
+			+ "ua:action(\"delete\", map {\"name\" := \"Delete\"}, oxy:execute-xquery-update-script(\"delete node .\")),\n"
+			+ "ua:template(\"sense-template\", <template>Sense: {label}<datalist id=\"types\">"
+			+ "<option label=\"Noun\" value=\"n\"/></datalist></template>),\n"
+			+ "ua:template(\"entry-template\", <template>Entry {ua:get-template('sense-template')}</template>)";
+
+	@Test
+	public void testTemplateArtifacts() throws IOException {
+		File directory = Files.createTempDirectory("parser-cache").toFile();
+
+		try {
+			TemplateArtifacts artifacts = new TemplateArtifacts();
+			artifacts.templates.put("sense-template", "\"Sense\"");
+
+			ParserCache cache = ParserCache.load(directory, "context");
+			Assert.assertNull(cache.getTemplateArtifacts("declaration"));
+			cache.putTemplateArtifacts("declaration", artifacts);
+			cache.save(directory);
+
+			cache = ParserCache.load(directory, "context");
+			Assert.assertEquals("\"Sense\"", cache.getTemplateArtifacts("declaration").templates.get("sense-template"));
+			Assert.assertNull(cache.getTemplateArtifacts("another declaration"));
+			Assert.assertNull(ParserCache.load(directory, "another context").getTemplateArtifacts("declaration"));
+		} finally {
+			_delete(directory);
+		}
+	}
+
+	@Test
+	public void testCodeHash() {
+		// a random hash, used when the classes cannot be read, is a UUID
+		Assert.assertEquals(40, ParserCache.getCodeHash().length());
+		Assert.assertEquals(ParserCache.getCodeHash(), ParserCache.getCodeHash());
+	}
+
+	@Test
+	public void testChangedTemplate() throws Exception {
+		File directory = _createFramework(xquery);
+
+		try {
+			_parse(directory);
+			Assert.assertTrue(_readTemplates(directory).get("entry-template").contains("label"));
+
+			File frameworkFile = new File(directory, "test.framework");
+			File templatesFile = new File(directory, "target/templates" + ArtifactOutputStream.extension);
+			File prologFile = new File(directory, "target/prolog" + ArtifactOutputStream.extension);
+			frameworkFile.setLastModified(1000);
+			templatesFile.setLastModified(1000);
+			prologFile.setLastModified(1000);
+			_parse(directory);
+			Assert.assertEquals(1000, frameworkFile.lastModified());
+			Assert.assertEquals(1000, templatesFile.lastModified());
+
+			_write(new File(directory, "addon.xq"), xquery.replace("{label}", "{changed-label}"));
+			_parse(directory);
+			Map<String, String> templates = _readTemplates(directory);
+			Assert.assertTrue(templates.get("sense-template").contains("changed-label"));
+			Assert.assertTrue(templates.get("entry-template").contains("changed-label"));
+			Assert.assertEquals(1000, frameworkFile.lastModified());
+			Assert.assertTrue(templatesFile.lastModified() != 1000);
+			Assert.assertEquals(1000, prologFile.lastModified());
+		} finally {
+			_delete(directory);
+		}
+	}
+
+	@Test
+	public void testStaleFiles() throws Exception {
+		File directory = _createFramework(xquery);
+
+		try {
+			File datalistsDirectory = new File(directory, "resources/css/datalists");
+			File actionsDirectory = new File(directory, "resources/css/actions");
+
+			_parse(directory);
+			Assert.assertTrue(new File(datalistsDirectory, "types.less").exists());
+			_write(new File(actionsDirectory, "search.less"), "");
+
+			_write(new File(directory, "addon.xq"), xquery.replace("types", "kinds"));
+			_parse(directory);
+			Assert.assertFalse(new File(datalistsDirectory, "types.less").exists());
+			Assert.assertTrue(new File(datalistsDirectory, "kinds.less").exists());
+			Assert.assertFalse(new File(actionsDirectory, "search.less").exists());
+			Assert.assertTrue(new File(actionsDirectory, "actions.less").exists());
+		} finally {
+			_delete(directory);
+		}
+	}
+
+	private static File _createFramework(String xquery) throws IOException {
+		File directory = Files.createTempDirectory("framework").toFile();
+
+		_write(new File(directory, "addon.xq"), xquery);
+		_write(new File(directory, "test.framework"), frameworkDescriptor);
+		new File(directory, "resources/css").mkdirs();
+		new File(directory, "target").mkdirs();
+
+		return directory;
+	}
+
+	private static void _parse(File directory) throws Exception {
+		new Parser(directory, "test", new File(directory, "target"), true);
+	}
+
+	private static Map<String, String> _readTemplates(File directory) throws IOException {
+		File templatesFile = new File(directory, "target/templates" + ArtifactOutputStream.extension);
+
+		try (ArtifactInputStream in = new ArtifactInputStream(new FileInputStream(templatesFile))) {
+			return in.readIndexedStringMap();
+		}
+	}
+
+	private static void _write(File file, String content) throws IOException {
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static void _delete(File directory) throws IOException {
+		try (Stream<Path> paths = Files.walk(directory.toPath())) {
+			paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+		}
+	}
+}
@@ -0,0 +1,130 @@
+package ro.kuberam.oxygen.addonBuilder.parser;
+
+import java.io.File;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ParserTest {
+
+	private static String prolog = "xquery version \"3.0\";\n"
+			+ "declare namespace ua = \"http://expath.org/ns/user-agent\";\n"
+			+ "declare namespace oxy = \"http://oxygenxml.com/extensions/author\";\n";
+
+	private static String senseTemplate = "ua:template(\"sense-template\", <template>Sense: "
+			+ "<input type=\"text\" list=\"types\" data-ua-ref=\"{@pos}\"/>"
+			+ "<datalist id=\"types\"><option label=\"Noun\" value=\"n\"/><option label=\"Verb\" value=\"v\"/></datalist>"
+			+ "<button onclick=\"{oxy:execute-action-by-name('delete')}\">X</button>"
+			+ "<button onclick=\"{ua:show-template('sense-dialog')}\">Dialog</button></template>)";
+
+	private static String entryTemplate = "ua:template(\"entry-template\", <template>Entry "
+			+ "{ua:get-template('sense-template')}</template>)";
+
+	@Test
+	public void testTemplatesWithDependencies() throws Exception {
+		String xquery = prolog + "declare variable $lang as xs:string := \"ro\";\n"
+				+ "ua:action(\"delete\", map {\"name\" := \"Delete\"}, oxy:execute-xquery-update-script(\"delete node .\")),\n"
+				+ senseTemplate + ",\n" + entryTemplate + ",\n"
+				+ "ua:template(\"sense-dialog\", <template><dialog title=\"Sense\" style=\"width: 300px; height: 200px;\">"
+				+ "<p>Hello</p></dialog></template>),\n"
+				+ "ua:template(\"tree-template\", <template><tree data-ua-ref=\"{//sense}\" style=\"width: 300px; height: 400px;\">"
+				+ "<treeitem>{ua:context()/@n}</treeitem><itemtemplate><span>label</span></itemtemplate></tree></template>),\n"
+				+ "ua:template(\"homonym-template\", <template>Homonym {ua:get-template('entry-template')} "
+				+ "{ua:get-template('sense-template')}</template>),\n"
+				+ "ua:attach-template(ua-dt:css-selector(\"entry\"), (), \"entry-template\")";
+
+		ParsingResult parsingResult = _assertSameResults(xquery);
+
+		Assert.assertTrue(parsingResult.templates.get("homonym-template").contains("Sense"));
+		Assert.assertTrue(parsingResult.dialogs.containsKey("sense-dialog"));
+	}
+
+	@Test
+	public void testForwardReference() throws Exception {
+		ParsingResult parsingResult = _assertSameResults(prolog + entryTemplate + ",\n" + senseTemplate);
+
+		// a template declared later is not found, as when the templates are
+		// processed serially
+		Assert.assertFalse(parsingResult.templates.get("entry-template").contains("Sense"));
+	}
+
+	@Test
+	public void testReferenceByVariable() throws Exception {
+		String xquery = prolog
+				+ "declare variable $sense as element() := <template>{ua:get-template('sense-template')}</template>;\n"
+				+ senseTemplate + ",\n" + "ua:template(\"entry-template\", <template>Entry {$sense}</template>)";
+
+		_assertSameResults(xquery);
+	}
+
+	@Test
+	public void testNestedTemplates() throws Exception {
+		String xquery = prolog + senseTemplate + ",\n"
+				+ "ua:template(\"entry-template\", <template>Entry {ua:template(\"label-template\", "
+				+ "<template>{ua:get-template('sense-template')}</template>)}</template>)";
+
+		_assertSameResults(xquery);
+	}
+
+	@Test
+	public void testDatalistReference() throws Exception {
+		String xquery = prolog + senseTemplate + ",\n"
+				+ "ua:template(\"pos-template\", <template>{ua:get-template('types')}</template>)";
+
+		ParsingResult parsingResult = _assertSameResults(xquery);
+
+		Assert.assertEquals(parsingResult.templates.get("types"), parsingResult.datalists.get(0).getValues());
+	}
+
+	@Test
+	public void testDuplicateDatalist() throws Exception {
+		String xquery = prolog + senseTemplate + ",\n"
+				+ "ua:template(\"entry-template\", <template>Entry <datalist id=\"types\">"
+				+ "<option label=\"Adjective\" value=\"adj\"/></datalist></template>)";
+
+		ParsingResult parsingResult = _assertSameResults(xquery);
+
+		Assert.assertEquals(1, parsingResult.datalists.size());
+		Assert.assertEquals("Noun", parsingResult.datalists.get(0).getLabels().split(",")[0].trim());
+	}
+
+	private static ParsingResult _assertSameResults(String xquery) throws Exception {
+		ParsingResult serialResult = _parse(xquery, false);
+		ParsingResult parallelResult = _parse(xquery, true);
+
+		Assert.assertEquals(_toString(serialResult), _toString(parallelResult));
+
+		return parallelResult;
+	}
+
+	private static ParsingResult _parse(String xquery, boolean parallel) throws Exception {
+		Parser parser = new Parser(false);
+		parser.parallel = parallel;
+		parser.processDeclarations(SyntaxTreeBuilder.parse(xquery), new File("."));
+
+		return parser.getParsingResult();
+	}
+
+	/**
+	 * The tree templates get random ids, which are masked.
+	 */
+	private static String _toString(ParsingResult parsingResult) {
+		StringBuilder result = new StringBuilder();
+
+		result.append(new TreeMap<String, String>(parsingResult.templates)).append('\n');
+		result.append(parsingResult.attachedTemplates).append('\n');
+		result.append(parsingResult.datalists.stream()
+				.map(datalist -> datalist.getId() + ": " + datalist.getLabels() + " / " + datalist.getValues())
+				.collect(Collectors.toList())).append('\n');
+		result.append(new TreeMap<String, Object>(parsingResult.dialogs)).append('\n');
+		result.append(parsingResult.actions).append('\n');
+		result.append(parsingResult.actionsByName).append('\n');
+		result.append(new TreeMap<String, String>(parsingResult.nodeSelectors)).append('\n');
+		result.append(new TreeMap<String, String>(parsingResult.variables)).append('\n');
+		result.append(parsingResult.prolog);
+
+		return result.toString().replaceAll("[0-9a-f]{32}", "UUID");
+	}
+}
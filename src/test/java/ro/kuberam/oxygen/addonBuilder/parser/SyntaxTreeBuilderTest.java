@@ -0,0 +1,84 @@
+package ro.kuberam.oxygen.addonBuilder.parser;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SyntaxTreeBuilderTest {
+
+	private static String xquery = "declare variable $lang as xs:string := \"ro\";\n"
+			+ "ua:template(\"entry\", <template>{ua:get-template('sense')}</template>),\n"
+			+ "ua:observer(\"observer\", \"delete search\")";
+
+	@Test
+	public void testTextContent() {
+		SyntaxNode syntaxTree = SyntaxTreeBuilder.parse(xquery);
+
+		Assert.assertEquals("XQuery", syntaxTree.getNodeName());
+		Assert.assertEquals(xquery, syntaxTree.getTextContent());
+		Assert.assertEquals("$lang as xs:string := \"ro\"",
+				syntaxTree.getElementsByTagName("VarDecl").get(0).getTextContent().substring(9));
+	}
+
+	@Test
+	public void testFunctionCalls() {
+		SyntaxNode syntaxTree = SyntaxTreeBuilder.parse(xquery);
+		List<SyntaxNode> functionCallElements = syntaxTree.getElementsByTagName("FunctionCall");
+
+		Assert.assertEquals(3, functionCallElements.size());
+		Assert.assertEquals("ua:template", functionCallElements.get(0).getFirstChild().getFirstChild().getTextContent());
+		Assert.assertEquals("ua:get-template",
+				functionCallElements.get(1).getFirstChild().getFirstChild().getTextContent());
+		Assert.assertEquals("ua:observer", functionCallElements.get(2).getFirstChild().getFirstChild().getTextContent());
+	}
+
+	@Test
+	public void testElementsOfSubtree() {
+		SyntaxNode syntaxTree = SyntaxTreeBuilder.parse(xquery);
+		List<SyntaxNode> functionCallElements = syntaxTree.getElementsByTagName("FunctionCall");
+		List<SyntaxNode> argumentElements = functionCallElements.get(0).getElementsByTagName("Argument");
+
+		Assert.assertEquals(3, argumentElements.size());
+		Assert.assertEquals("\"entry\"", argumentElements.get(0).getTextContent());
+		Assert.assertEquals("'sense'", argumentElements.get(2).getTextContent());
+		Assert.assertEquals(2, functionCallElements.get(2).getElementsByTagName("Argument").size());
+		Assert.assertEquals(0, functionCallElements.get(2).getElementsByTagName("EnclosedExpr").size());
+	}
+
+	@Test
+	public void testSetTextContent() {
+		SyntaxNode syntaxTree = SyntaxTreeBuilder.parse(xquery);
+		List<SyntaxNode> functionCallElements = syntaxTree.getElementsByTagName("FunctionCall");
+		SyntaxNode enclosedExprElement = syntaxTree.getElementsByTagName("EnclosedExpr").get(0);
+
+		enclosedExprElement.setTextContent("<template/>");
+
+		Assert.assertEquals("<template/>", enclosedExprElement.getTextContent());
+		Assert.assertTrue(functionCallElements.get(0).isAttached());
+		Assert.assertFalse(functionCallElements.get(1).isAttached());
+		Assert.assertEquals(2, syntaxTree.getElementsByTagName("FunctionCall").size());
+	}
+
+	@Test
+	public void testReusedParser() {
+		String invalidXquery = xquery + ",\nua:template(\"sense\", ";
+		String errorMessage = null;
+
+		for (int i = 0; i < 2; i++) {
+			try {
+				SyntaxTreeBuilder.parse(invalidXquery);
+				Assert.fail();
+			} catch (RuntimeException e) {
+				if (errorMessage != null) {
+					Assert.assertEquals(errorMessage, e.getMessage());
+				}
+				errorMessage = e.getMessage();
+			}
+
+			Assert.assertEquals(xquery, SyntaxTreeBuilder.parse(xquery).getTextContent());
+		}
+
+		Assert.assertTrue(errorMessage, errorMessage.contains("at line 4, column "));
+	}
+}
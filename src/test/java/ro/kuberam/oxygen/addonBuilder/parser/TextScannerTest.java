@@ -0,0 +1,58 @@
+package ro.kuberam.oxygen.addonBuilder.parser;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TextScannerTest {
+
+	private static String[] texts = { "", "'", "\"id\"", "'id'\n", "id\"\r\n", "\"a'b\"", "{ $node/@id }",
+			"  {\n\tua:get-template('a')  }\n", "{a}}", "oxy_xpath_startchild::*oxy_xpath_end and oxy_xpath_",
+			"ua-dt:xpath-selector('//entry')", "ua-dt:xpath-selector(\"//a\"))\n", "<a>\n  <b> x </b>\t<c/> </a>",
+			"> <", ">>  <<" };
+
+	@Test
+	public void testUnquote() {
+		for (String text : texts) {
+			Assert.assertEquals(text.replaceAll("^['\"]", "").replaceAll("['\"]$", ""), TextScanner.unquote(text));
+		}
+	}
+
+	@Test
+	public void testRemoveFunctionCall() {
+		for (String text : texts) {
+			Assert.assertEquals(text.replaceAll("ua-dt:xpath-selector\\(", "").replaceAll("\\)$", ""),
+					TextScanner.removeFunctionCall(text, "ua-dt:xpath-selector"));
+		}
+	}
+
+	@Test
+	public void testRemoveCurlyBraces() {
+		for (String text : texts) {
+			Assert.assertEquals(text.replaceAll("^\\s*\\{\\s*", "").replaceAll("\\s*\\}\\s*$", ""),
+					TextScanner.removeCurlyBraces(text));
+		}
+	}
+
+	@Test
+	public void testMarkers() {
+		for (String text : texts) {
+			Assert.assertEquals(text.replaceAll("oxy_xpath_start", "\" oxy_xpath(\"").replaceAll("oxy_xpath_end", "\") \""),
+					TextScanner.replaceMarkers(text, "\" oxy_xpath(\"", "\") \""));
+			Assert.assertEquals(text.replaceAll("oxy_xpath_start", "").replaceAll("oxy_xpath_end", ""),
+					TextScanner.removeMarkers(text));
+		}
+	}
+
+	@Test
+	public void testRemoveWhitespaceBetweenTags() {
+		for (String text : texts) {
+			Assert.assertEquals(text.replaceAll(">\\s+<", "><"), TextScanner.removeWhitespaceBetweenTags(text));
+		}
+	}
+
+	@Test
+	public void testReplace() {
+		Assert.assertEquals("a$node/b$node", TextScanner.replace("aua:context()/bua:context()", "ua:context()", "$node"));
+		Assert.assertEquals("abc", TextScanner.remove("a\"\"bc\"\"", "\"\""));
+	}
+}
@@ -0,0 +1,17 @@
+package ro.kuberam.oxygen.addonBuilder.templates.java.input;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DatalistRegistryTest {
+
+	@Test
+	public void testGet() {
+		SharedDatalist datalist = DatalistRegistry.get("n,v,adj,v,n");
+
+		Assert.assertArrayEquals(new String[] { "n", "v", "adj" }, datalist.getValues());
+		Assert.assertSame(datalist, DatalistRegistry.get(new String("n,v,adj,v,n")));
+		Assert.assertSame(datalist.getSuggestionIndex(), DatalistRegistry.get("n,v,adj,v,n").getSuggestionIndex());
+		Assert.assertNotSame(datalist, DatalistRegistry.get("n,v,adj"));
+	}
+}
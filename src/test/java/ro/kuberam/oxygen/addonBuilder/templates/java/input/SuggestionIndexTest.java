@@ -0,0 +1,92 @@
+package ro.kuberam.oxygen.addonBuilder.templates.java.input;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import ro.kuberam.oxygen.addonBuilder.templates.java.input.SuggestionIndex.Suggestions;
+
+public class SuggestionIndexTest {
+
+	private static final String[] values = { "Noun", "Verb", "Adverb", "Adjective", "Pronoun", "Numeral",
+			"Preposition", "Conjunction", "Interjection", "Proper noun" };
+
+	@Test
+	public void testSearch() {
+		SuggestionIndex suggestionIndex = new SuggestionIndex(values);
+
+		Assert.assertEquals("[Noun, Pronoun, Proper noun]", _getValues(suggestionIndex.search("NOUN", null)));
+		Assert.assertEquals("[Noun, Pronoun, Numeral, Preposition, Conjunction, Interjection, Proper noun]",
+				_getValues(suggestionIndex.search("n", null)));
+		Assert.assertEquals("[]", _getValues(suggestionIndex.search("xyz", null)));
+	}
+
+	@Test
+	public void testNarrowing() {
+		SuggestionIndex suggestionIndex = new SuggestionIndex(values);
+
+		Suggestions suggestions = suggestionIndex.search("ver", null);
+		Assert.assertEquals("[Verb, Adverb]", _getValues(suggestions));
+
+		suggestions = suggestionIndex.search("verb", suggestions);
+		Assert.assertEquals("[Verb, Adverb]", _getValues(suggestions));
+
+		suggestions = suggestionIndex.search("adverb", suggestions);
+		Assert.assertEquals("[Adverb]", _getValues(suggestions));
+
+		suggestions = suggestionIndex.search("adj", suggestions);
+		Assert.assertEquals("[Adjective]", _getValues(suggestions));
+	}
+
+	@Test
+	public void testRandomValues() {
+		Random random = new Random(42);
+		String[] randomValues = new String[5000];
+		for (int i = 0; i < randomValues.length; i++) {
+			randomValues[i] = _getRandomText(random, 3 + random.nextInt(12));
+		}
+
+		SuggestionIndex suggestionIndex = new SuggestionIndex(randomValues);
+
+		for (int i = 0; i < 200; i++) {
+			String text = _getRandomText(random, 1 + random.nextInt(4));
+			List<String> expectedValues = new ArrayList<String>();
+			for (String value : randomValues) {
+				if (value.toLowerCase().contains(text.toLowerCase())) {
+					expectedValues.add(value);
+				}
+			}
+
+			Suggestions suggestions = suggestionIndex.search(text.substring(0, 1), null);
+			suggestions = suggestionIndex.search(text, suggestions);
+
+			Assert.assertEquals(text, expectedValues.toString(), _getValues(suggestionIndex, suggestions));
+		}
+	}
+
+	private static String _getValues(Suggestions suggestions) {
+		return _getValues(new SuggestionIndex(values), suggestions);
+	}
+
+	private static String _getValues(SuggestionIndex suggestionIndex, Suggestions suggestions) {
+		List<String> suggestedValues = new ArrayList<String>();
+		for (int match : suggestions.getMatches()) {
+			suggestedValues.add(suggestionIndex.getValues()[match]);
+		}
+
+		return suggestedValues.toString();
+	}
+
+	private static String _getRandomText(Random random, int length) {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			char c = (char) ('a' + random.nextInt(6));
+			text.append(random.nextBoolean() ? Character.toUpperCase(c) : c);
+		}
+
+		return text.toString();
+	}
+}
@@ -0,0 +1,42 @@
+package ro.kuberam.oxygen.addonBuilder.templates.java.select;
+
+import java.awt.FontMetrics;
+
+import javax.swing.ListModel;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SelectElementTest {
+
+	@Test
+	public void testModelReuse() {
+		SelectElement selectElement = new SelectElement();
+		selectElement.setValues("n v adj");
+		ListModel<Object> model = selectElement.list.getModel();
+
+		Assert.assertEquals(3, model.getSize());
+		Assert.assertEquals("adj", model.getElementAt(2));
+
+		selectElement.list.setSelectedIndices(new int[] { 0, 2 });
+		Assert.assertEquals("n adj", selectElement.getSelectedValues());
+
+		selectElement.setValues(new String("n v adj"));
+		Assert.assertSame(model, selectElement.list.getModel());
+		Assert.assertEquals("", selectElement.getSelectedValues());
+
+		selectElement.setValues("n v");
+		Assert.assertNotSame(model, selectElement.list.getModel());
+		Assert.assertEquals(2, selectElement.list.getModel().getSize());
+	}
+
+	@Test
+	public void testCellWidth() {
+		SelectElement selectElement = new SelectElement();
+		selectElement.setValues("iiiiiii WWWW");
+		FontMetrics fontMetrics = selectElement.list.getFontMetrics(selectElement.list.getFont());
+
+		Assert.assertTrue(selectElement.list.getFixedCellWidth() >= fontMetrics.stringWidth("WWWW"));
+		Assert.assertTrue(selectElement.list.getFixedCellWidth() >= fontMetrics.stringWidth("iiiiiii"));
+	}
+}
@@ -0,0 +1,102 @@
+package ro.kuberam.oxygen.addonBuilder.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import ro.kuberam.oxygen.addonBuilder.javafx.DialogModel;
+import ro.kuberam.oxygen.addonBuilder.mutations.ObserverConnection;
+
+public class ArtifactStreamTest {
+
+	@Test
+	public void testStrings() throws IOException {
+		Map<String, String> templates = new HashMap<String, String>();
+		templates.put("entry-template", "\"Entry\" oxy_editor(type, text, edit, \"@n\") \u0219\u021b");
+		templates.put("empty-template", "");
+
+		ArrayList<String> actionsByName = new ArrayList<String>(Arrays.asList("delete", "search"));
+		Map<String, String[]> observers = new HashMap<String, String[]>();
+		observers.put("observer", new String[] { "delete", "search" });
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ArtifactOutputStream out = new ArtifactOutputStream(bytes)) {
+			out.writeString(null);
+			out.writeStringMap(templates);
+			out.writeStringList(actionsByName);
+			out.writeStringArrayMap(observers);
+		}
+
+		try (ArtifactInputStream in = new ArtifactInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			Assert.assertNull(in.readString());
+			Assert.assertEquals(templates, in.readStringMap());
+			Assert.assertEquals(actionsByName, in.readStringList());
+			Assert.assertArrayEquals(observers.get("observer"), in.readStringArrayMap().get("observer"));
+		}
+	}
+
+	@Test
+	public void testObserverConnectionsAndDialogs() throws IOException {
+		Map<String, Object> options = new HashMap<String, Object>();
+		options.put("attributes", "true");
+		options.put("attributeFilter", Arrays.asList("type", "n"));
+		Map<String, ObserverConnection> connectObserverActions = new HashMap<String, ObserverConnection>();
+		connectObserverActions.put("//entry", new ObserverConnection("observer", "//entry", options));
+
+		Map<String, DialogModel> dialogs = new HashMap<String, DialogModel>();
+		dialogs.put("sense-dialog", new DialogModel("sense-dialog", "modal", "Sense", 300, 200, "true",
+				new String[] { "0", "0" }, null, "dialog", "<p>Hello</p>"));
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ArtifactOutputStream out = new ArtifactOutputStream(bytes)) {
+			out.writeObserverConnections(connectObserverActions);
+			out.writeDialogs(dialogs);
+		}
+
+		try (ArtifactInputStream in = new ArtifactInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			ObserverConnection observerConnection = in.readObserverConnections().get("//entry");
+			Assert.assertEquals("observer", observerConnection.getObserverHandler());
+			Assert.assertEquals("//entry", observerConnection.getNodeSelector());
+			Assert.assertEquals(options, observerConnection.getOptions());
+
+			Assert.assertEquals(dialogs.get("sense-dialog").toString(), in.readDialogs().get("sense-dialog").toString());
+		}
+	}
+
+	@Test
+	public void testIndexedStringMap() throws IOException {
+		Map<String, String> templates = new HashMap<String, String>();
+		templates.put("sense-template", "\"Sense:\" oxy_editor(type, text, edit, \"@n\") \u0219\u021b");
+		templates.put("entry-template", "\"Entry\"");
+		templates.put("empty-template", "");
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ArtifactOutputStream out = new ArtifactOutputStream(bytes)) {
+			out.writeIndexedStringMap(templates);
+			out.writeString("prolog");
+		}
+
+		try (ArtifactInputStream in = new ArtifactInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			Map<String, String> indexedTemplates = in.readIndexedStringMap();
+
+			Assert.assertEquals("prolog", in.readString());
+			Assert.assertEquals(3, indexedTemplates.size());
+			Assert.assertEquals(templates.get("sense-template"), indexedTemplates.get("sense-template"));
+			Assert.assertEquals("", indexedTemplates.get("empty-template"));
+			Assert.assertNull(indexedTemplates.get("missing-template"));
+			Assert.assertEquals(templates, indexedTemplates);
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testNotAnArtifact() throws IOException {
+		new ArtifactInputStream(new ByteArrayInputStream(new byte[] { 0, 0, 0, 0, 0, 0, 0, 1 })).close();
+	}
+}